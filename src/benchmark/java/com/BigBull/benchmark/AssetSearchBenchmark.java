@@ -0,0 +1,185 @@
+package com.BigBull.benchmark;
+
+import com.BigBull.service.AssetSearchIndex;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asset autocomplete latency against the size of the assets table.
+ *
+ * <ul>
+ *   <li>{@code index}: ranked ids from {@link AssetSearchIndex}, then the rows by primary key</li>
+ *   <li>{@code sql}: the {@code LOWER(...) LIKE '%q%'} scan behind the old search, cut to the same limit</li>
+ * </ul>
+ *
+ * Queries cycle through typical keystroke sequences. The database is an
+ * in-memory H2 in MySQL mode migrated with the real Flyway scripts.
+ *
+ * Usage: {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="AssetSearchBenchmark"}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AssetSearchBenchmark {
+
+    private static final int LIMIT = 20;
+
+    // Names are one to three made-up words from these syllables, often followed by a common company word
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ra", "tor", "ven", "sol", "dex", "bri", "nex",
+            "qua", "zen", "pho", "gal", "tri", "mor", "fin", "sta", "cor", "ul"
+    };
+
+    private static final String[] COMPANY_WORDS = {
+            "Inc", "Corp", "Holdings", "Group", "Ltd", "Bank", "Technologies", "Energy", "Capital", "Trust"
+    };
+
+    private static final String[] QUERIES = {
+            "a", "k", "ka", "kal", "nex", "nexa",
+            "t", "te", "tech", "ho", "hold", "holdings",
+            "bank", "cap", "sol", "zq", "xyzzy", "cor", "corp", "fin"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    int assets;
+
+    @Param({"index", "sql"})
+    String path;
+
+    private Connection connection;
+    private PreparedStatement likeScan;
+    private AssetSearchIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:search" + assets + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+
+        index = new AssetSearchIndex();
+        Random random = new Random(42);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO assets (id, symbol, name, type, quantity, cost_per_unit, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 'STOCK', 0, 0, ?, ?)")) {
+            for (int i = 1; i <= assets; i++) {
+                String symbol = symbol(random, i);
+                String name = name(random);
+                insert.setLong(1, i);
+                insert.setString(2, symbol);
+                insert.setString(3, name);
+                insert.setTimestamp(4, now);
+                insert.setTimestamp(5, now);
+                insert.addBatch();
+                if (i % 1000 == 0) {
+                    insert.executeBatch();
+                }
+                index.put(i, symbol, name);
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        likeScan = connection.prepareStatement(
+                "SELECT id, symbol, name, type, quantity, cost_per_unit FROM assets "
+                        + "WHERE LOWER(symbol) LIKE ? OR LOWER(name) LIKE ? LIMIT " + LIMIT);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int search() throws SQLException {
+        String query = QUERIES[next++ % QUERIES.length];
+        if ("index".equals(path)) {
+            long[] ids = index.search(query, LIMIT);
+            if (ids.length == 0) {
+                return 0;
+            }
+            StringBuilder sql = new StringBuilder(
+                    "SELECT id, symbol, name, type, quantity, cost_per_unit FROM assets WHERE id IN (");
+            for (int i = 0; i < ids.length; i++) {
+                sql.append(i == 0 ? "" : ",").append(ids[i]);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(sql.append(')').toString())) {
+                return drain(rows);
+            }
+        }
+        String pattern = "%" + query.toLowerCase(Locale.ROOT) + "%";
+        likeScan.setString(1, pattern);
+        likeScan.setString(2, pattern);
+        try (ResultSet rows = likeScan.executeQuery()) {
+            return drain(rows);
+        }
+    }
+
+    private static int drain(ResultSet rows) throws SQLException {
+        int count = 0;
+        while (rows.next()) {
+            count += rows.getString(2).length();
+        }
+        return count;
+    }
+
+    // Three letters and a base-36 suffix, unique per row like real tickers
+    private static String symbol(Random random, int i) {
+        StringBuilder symbol = new StringBuilder();
+        for (int k = 0; k < 3; k++) {
+            symbol.append((char) ('A' + random.nextInt(26)));
+        }
+        return symbol.append(Integer.toString(i, 36).toUpperCase(Locale.ROOT)).toString();
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                name.append(' ');
+            }
+            int syllables = 2 + random.nextInt(2);
+            for (int k = 0; k < syllables; k++) {
+                String syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+                name.append(k == 0 ? Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1) : syllable);
+            }
+        }
+        if (random.nextBoolean()) {
+            name.append(' ').append(COMPANY_WORDS[random.nextInt(COMPANY_WORDS.length)]);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.BigBull.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the platform worker pool against virtual threads for request
+ * handling that blocks on I/O. One invocation serves a burst of concurrent
+ * requests; lower time per burst means higher request throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_WORKERS = 200;
+
+    // Default bigbull.quotes.fanout-threads
+    private static final int PLATFORM_FANOUT = 16;
+
+    @Param({"platform", "virtual"})
+    String threadModel;
+
+    @Param({"200", "1000", "5000"})
+    int concurrentRequests;
+
+    // Simulated JDBC or Python round trip
+    @Param({"10"})
+    int blockingMillis;
+
+    // Upstream quote calls per portfolio summary
+    @Param({"8"})
+    int holdings;
+
+    private ExecutorService requestExecutor;
+    private ExecutorService fanoutExecutor;
+
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(threadModel)) {
+            requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            fanoutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            requestExecutor = Executors.newFixedThreadPool(PLATFORM_WORKERS);
+            fanoutExecutor = Executors.newFixedThreadPool(PLATFORM_FANOUT);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        fanoutExecutor.shutdownNow();
+    }
+
+    /** Requests that do one blocking call, like the StockController proxies. */
+    @Benchmark
+    public void blockingProxy() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            requestExecutor.execute(() -> {
+                block();
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    /** Requests that fan out one quote call per holding, like the portfolio summary. */
+    @Benchmark
+    public void portfolioFanOut() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            requestExecutor.execute(() -> {
+                List<Future<?>> quotes = new ArrayList<>(holdings);
+                for (int h = 0; h < holdings; h++) {
+                    quotes.add(fanoutExecutor.submit(this::block));
+                }
+                for (Future<?> quote : quotes) {
+                    try {
+                        quote.get();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    private void block() {
+        try {
+            Thread.sleep(blockingMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.BigBull.benchmark;
+
+import com.BigBull.service.TradeJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable journal appends per second against the number of concurrent writers.
+ *
+ * <ul>
+ *   <li>{@code groupCommit}: {@link TradeJournal#append}, one flush covering every writer waiting on it</li>
+ *   <li>{@code flushEach}: appends serialized with a flush each, the cost of one commit per trade</li>
+ * </ul>
+ *
+ * Writes go to {@code java.io.tmpdir}; point it at the disk the journal would use.
+ *
+ * Usage: {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="TradeJournalBenchmark"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class TradeJournalBenchmark {
+
+    private static final int APPENDS_PER_BURST = 512;
+
+    @Param({"groupCommit", "flushEach"})
+    String mode;
+
+    @Param({"1", "8", "64"})
+    int writers;
+
+    // Roughly the size of an encoded trade entry
+    @Param({"64"})
+    int payloadBytes;
+
+    private Path dir;
+    private TradeJournal journal;
+    private ExecutorService executor;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        journal = new TradeJournal(dir, 64 * 1024 * 1024);
+        journal.open(0);
+        executor = Executors.newFixedThreadPool(writers);
+        payload = new byte[payloadBytes];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /** One burst of appends spread over the writers; the score is durable appends per second. */
+    @Benchmark
+    @OperationsPerInvocation(APPENDS_PER_BURST)
+    public void appends() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(APPENDS_PER_BURST);
+        for (int i = 0; i < APPENDS_PER_BURST; i++) {
+            pending.add(CompletableFuture.runAsync(this::append, executor));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void append() {
+        try {
+            if ("groupCommit".equals(mode)) {
+                journal.append(payload);
+            } else {
+                synchronized (this) {
+                    journal.append(payload);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.BigBull.benchmark;
+
+import com.BigBull.service.TradeSequencer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Trade throughput against the number of concurrent users. Each trade is a
+ * wallet read-modify-write around a simulated database round trip.
+ *
+ * <ul>
+ *   <li>{@code sequencer}: per-user single-writer lanes ({@link TradeSequencer})</li>
+ *   <li>{@code rowLock}: per-user lock held across the round trip, like SELECT ... FOR UPDATE</li>
+ *   <li>{@code globalLock}: every trade serialized, the worst case for row locks on shared rows</li>
+ * </ul>
+ *
+ * Usage: {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="TradeSequencerBenchmark"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class TradeSequencerBenchmark {
+
+    // Divisible by every user count below, so each user gets an equal share
+    private static final int TRADES_PER_BURST = 1024;
+
+    // Request threads submitting trades, like the Tomcat worker pool
+    private static final int CALLERS = 64;
+
+    @Param({"sequencer", "rowLock", "globalLock"})
+    String model;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    int users;
+
+    // bigbull.trades.sequencer-stripes; users sharing a lane wait on each other
+    @Param({"64"})
+    int stripes;
+
+    // Simulated database round trip per trade
+    @Param({"200"})
+    int roundTripMicros;
+
+    private ExecutorService callers;
+    private ExecutorService laneExecutor;
+    private TradeSequencer sequencer;
+    private ReentrantLock[] userLocks;
+    private ReentrantLock globalLock;
+    private double[] balances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        callers = Executors.newFixedThreadPool(CALLERS);
+        laneExecutor = Executors.newFixedThreadPool(stripes);
+        sequencer = new TradeSequencer(stripes, laneExecutor);
+        userLocks = new ReentrantLock[users];
+        for (int i = 0; i < users; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+        globalLock = new ReentrantLock();
+        balances = new double[users];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callers.shutdownNow();
+        laneExecutor.shutdownNow();
+    }
+
+    /** One burst of trades spread round-robin over the users; the score is trades per second. */
+    @Benchmark
+    @OperationsPerInvocation(TRADES_PER_BURST)
+    public void trades() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(TRADES_PER_BURST);
+        for (int t = 0; t < TRADES_PER_BURST; t++) {
+            int user = t % users;
+            pending.add(CompletableFuture.runAsync(() -> trade(user), callers));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void trade(int user) {
+        switch (model) {
+            case "sequencer" -> sequencer.execute("user" + user, () -> applyTrade(user));
+            case "rowLock" -> withLock(userLocks[user], user);
+            default -> withLock(globalLock, user);
+        }
+    }
+
+    private void withLock(ReentrantLock lock, int user) {
+        lock.lock();
+        try {
+            applyTrade(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyTrade(int user) {
+        double balance = balances[user];
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        balances[user] = balance + 1;
+    }
+}
@@ -0,0 +1,267 @@
+package com.BigBull.benchmark;
+
+import com.BigBull.dto.AssetDTO;
+import com.BigBull.dto.AssetSummary;
+import com.BigBull.dto.PortfolioSummary;
+import com.BigBull.dto.TransactionResponse;
+import com.BigBull.entity.Asset;
+import com.BigBull.entity.Holding;
+import com.BigBull.entity.Wallet;
+import com.BigBull.repository.AssetRepository;
+import com.BigBull.repository.HoldingRepository;
+import com.BigBull.repository.WalletRepository;
+import com.BigBull.service.AssetService;
+import com.BigBull.service.HoldingService;
+import com.BigBull.service.PortfolioAggregates;
+import com.BigBull.service.PortfolioService;
+import com.BigBull.service.PriceBook;
+import com.BigBull.service.PriceStreamClient;
+import com.BigBull.service.PythonQuoteClient;
+import com.BigBull.service.QuoteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Valuation and trade hot paths, run against the real services in a small
+ * Spring context. Repositories are in-memory stubs and the Python quote
+ * client returns fixed prices, so only our own code is measured.
+ *
+ * <ul>
+ *   <li>{@code assetSummary}: {@link AssetService#getAssetSummary} for one asset</li>
+ *   <li>{@code portfolioSummary}: {@link PortfolioService#getPortfolioSummary} with {@code positions} holdings</li>
+ *   <li>{@code weightedAverageCost} / {@code applyBuy}: the cost-basis update shared by asset adds and trades</li>
+ *   <li>{@code serialize*}: Jackson output of the two largest response bodies</li>
+ * </ul>
+ *
+ * Each benchmark reports throughput and sampled latency percentiles; add
+ * {@code -prof gc} for the allocation rate per operation and {@code -rf json}
+ * to keep a result file to compare runs against.
+ *
+ * Usage: {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="ValuationBenchmark -prof gc -rf json -rff target/jmh-valuation.json"}
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ValuationBenchmark {
+
+    /** The application services wired over stub repositories and a stub quote client. */
+    @State(Scope.Benchmark)
+    public static class Services {
+        final Map<String, Wallet> wallets = new ConcurrentHashMap<>();
+        final Map<String, List<Holding>> holdings = new ConcurrentHashMap<>();
+
+        AnnotationConfigApplicationContext context;
+        AssetService assetService;
+        PortfolioService portfolioService;
+        ObjectMapper objectMapper;
+        ExecutorService quoteExecutor;
+        Asset asset;
+
+        @Setup
+        public void setUp() {
+            quoteExecutor = Executors.newFixedThreadPool(2);
+            context = new AnnotationConfigApplicationContext();
+            context.registerBean(PriceBook.class);
+            context.registerBean(QuoteService.class);
+            context.registerBean(PortfolioAggregates.class);
+            context.registerBean(PortfolioService.class);
+            context.registerBean(AssetService.class);
+            context.registerBean(PriceStreamClient.class);
+            context.registerBean(PythonQuoteClient.class, FixedPriceQuoteClient::new);
+            context.registerBean(RestTemplate.class);
+            context.registerBean("quoteExecutor", ExecutorService.class, () -> quoteExecutor);
+            context.registerBean(ObjectMapper.class, () -> JsonMapper.builder().build());
+            context.registerBean(WalletRepository.class, () -> repository(WalletRepository.class, Map.of(
+                    "findByUsername", args -> Optional.ofNullable(wallets.get((String) args[0])))));
+            context.registerBean(HoldingRepository.class, () -> repository(HoldingRepository.class, Map.of(
+                    "findAllByUsernameWithAsset", args -> holdings.getOrDefault((String) args[0], List.of()))));
+            context.registerBean(AssetRepository.class, () -> repository(AssetRepository.class, Map.of()));
+            context.refresh();
+
+            assetService = context.getBean(AssetService.class);
+            portfolioService = context.getBean(PortfolioService.class);
+            objectMapper = context.getBean(ObjectMapper.class);
+            asset = asset(1, 25.0, 180.0);
+        }
+
+        /** Registers a user holding {@code positions} assets. */
+        void addUser(String username, int positions) {
+            Wallet wallet = new Wallet();
+            wallet.setUsername(username);
+            wallet.setBalance(50_000.0);
+            wallet.setTotalInvested(100_000.0);
+            wallet.setTotalWithdrawn(0.0);
+            wallets.put(username, wallet);
+
+            List<Holding> userHoldings = new ArrayList<>();
+            for (int i = 1; i <= positions; i++) {
+                Holding holding = new Holding();
+                holding.setUsername(username);
+                holding.setAsset(asset(i, 10.0 * i, 50.0 + i));
+                holding.setQuantity(10.0 * i);
+                holding.setAverageCost(50.0 + i);
+                holding.setRealizedPnl(0.0);
+                userHoldings.add(holding);
+            }
+            holdings.put(username, userHoldings);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+            quoteExecutor.shutdownNow();
+        }
+    }
+
+    /** One portfolio of a given size, also kept as a built summary for serialization. */
+    @State(Scope.Benchmark)
+    public static class Portfolio {
+        @Param({"1", "10", "100"})
+        int positions;
+
+        String username;
+        PortfolioSummary summary;
+
+        @Setup
+        public void setUp(Services services) {
+            username = "user" + positions;
+            services.addUser(username, positions);
+            summary = services.portfolioService.getPortfolioSummary(username);
+        }
+    }
+
+    /** Inputs for the cost-basis update and a typical trade response. */
+    @State(Scope.Benchmark)
+    public static class Trade {
+        double quantity = 120.0;
+        double averageCost = 171.25;
+        double units = 15.0;
+        double price = 182.40;
+
+        HoldingService holdingService = new HoldingService();
+        Holding holding = new Holding();
+        TransactionResponse response;
+
+        @Setup
+        public void setUp() {
+            AssetDTO view = new AssetDTO(1L, "AAPL", "Apple Inc.", "STOCK", 135.0, 172.49,
+                    LocalDateTime.now(), LocalDateTime.now());
+            response = new TransactionResponse(42L, "alice", view, "BUY", 15, price, 15 * price,
+                    LocalDateTime.now().toString(), 47_264.0, 135.0,
+                    "Transaction successful. 15 units of AAPL bought at 182.40");
+        }
+    }
+
+    @Benchmark
+    public AssetSummary assetSummary(Services services) {
+        return services.assetService.getAssetSummary(services.asset);
+    }
+
+    @Benchmark
+    public PortfolioSummary portfolioSummary(Services services, Portfolio portfolio) {
+        return services.portfolioService.getPortfolioSummary(portfolio.username);
+    }
+
+    @Benchmark
+    public double weightedAverageCost(Trade trade) {
+        return HoldingService.weightedAverageCost(trade.quantity, trade.averageCost, trade.units, trade.price);
+    }
+
+    /** The entity update a BUY applies to a holding, boxed Double fields included. */
+    @Benchmark
+    public Holding applyBuy(Trade trade) {
+        trade.holding.setQuantity(trade.quantity);
+        trade.holding.setAverageCost(trade.averageCost);
+        trade.holdingService.applyBuy(trade.holding, trade.units, trade.price);
+        return trade.holding;
+    }
+
+    @Benchmark
+    public byte[] serializePortfolioSummary(Services services, Portfolio portfolio) {
+        return services.objectMapper.writeValueAsBytes(portfolio.summary);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionResponse(Services services, Trade trade) {
+        return services.objectMapper.writeValueAsBytes(trade.response);
+    }
+
+    private static Asset asset(long id, double quantity, double costPerUnit) {
+        Asset asset = new Asset();
+        asset.setId(id);
+        asset.setSymbol("SYM" + id);
+        asset.setName("Company " + id);
+        asset.setType("STOCK");
+        asset.setQuantity(quantity);
+        asset.setCostPerUnit(costPerUnit);
+        return asset;
+    }
+
+    // Prices derived from the symbol, so every call returns the same quote
+    private static double price(String symbol) {
+        return 40.0 + Math.floorMod(symbol.hashCode(), 200);
+    }
+
+    /** Answers every quote locally instead of calling the Python service. */
+    static final class FixedPriceQuoteClient extends PythonQuoteClient {
+        @Override
+        public double fetchPrice(String symbol, String assetType) {
+            return price(symbol);
+        }
+
+        @Override
+        public Map<String, Double> fetchPrices(Map<String, String> typesBySymbol) {
+            Map<String, Double> prices = new HashMap<>();
+            for (String symbol : typesBySymbol.keySet()) {
+                prices.put(symbol, price(symbol));
+            }
+            return prices;
+        }
+    }
+
+    /** A repository answering only the named query methods. */
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> queries) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> query = queries.get(method.getName());
+            if (query != null) {
+                return query.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+}
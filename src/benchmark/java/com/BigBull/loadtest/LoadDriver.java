@@ -0,0 +1,424 @@
+package com.BigBull.loadtest;
+
+import com.BigBull.BigBullServerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: starts {@link PythonServiceStub}, boots the server
+ * against an in-memory H2 database pointed at the stub, seeds assets and
+ * wallets, then replays a traffic mix of dashboard polls, trades, history and
+ * quote lookups from many users. Prints throughput and p50/p99/p999 latency
+ * per endpoint.
+ *
+ * <p>Arrivals are open-loop (Poisson at {@code --rate} per second) and each
+ * latency is measured from the request's scheduled start, so a server that
+ * falls behind shows up in the tail instead of slowing the driver down.
+ * Symbols are picked with a skew towards the first few, like real watchlists.
+ *
+ * <p>Options (defaults in brackets):
+ * <ul>
+ *   <li>{@code --users} [200], {@code --symbols} [50]</li>
+ *   <li>{@code --rate} requests per second [300], {@code --duration} seconds [60], {@code --warmup} seconds [15]</li>
+ *   <li>{@code --mix} weights [summary=50,buy=15,sell=10,history=10,quote=10,transactions=5]</li>
+ *   <li>{@code --stub-latency-ms} [20], {@code --stub-jitter-ms} [10], {@code --stub-error-rate} [0]</li>
+ *   <li>{@code --max-in-flight} [2000]; arrivals beyond it are counted as dropped</li>
+ *   <li>{@code --seed} [42]</li>
+ *   <li>{@code --target} base URL of an already running server; skips the stub and embedded server</li>
+ * </ul>
+ *
+ * Usage: {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.BigBull.loadtest.LoadDriver -Dbenchmark.args="--users 500 --rate 400"}
+ */
+public class LoadDriver {
+
+    private static final String USER_PREFIX = "load-user-";
+    private static final String SYMBOL_PREFIX = "LT";
+    private static final String[] TIMEFRAMES = {"1D", "5D", "1M", "6M", "1Y"};
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+    private final Random random;
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    // Units each user is known to hold, so sells only ask for what was bought
+    private final Map<String, Map<String, AtomicInteger>> holdings = new ConcurrentHashMap<>();
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    private String baseUrl;
+    private int users;
+    private int symbols;
+    private String[] operations;
+    private int[] weights;
+
+    LoadDriver(Map<String, String> options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.random = new Random(Long.parseLong(options.get("seed")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "users", "200",
+                "symbols", "50",
+                "rate", "300",
+                "duration", "60",
+                "warmup", "15",
+                "mix", "summary=50,buy=15,sell=10,history=10,quote=10,transactions=5",
+                "stub-latency-ms", "20",
+                "stub-jitter-ms", "10",
+                "stub-error-rate", "0",
+                "max-in-flight", "2000"));
+        options.put("seed", "42");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+
+        PythonServiceStub stub = null;
+        ConfigurableApplicationContext server = null;
+        try {
+            String target = options.get("target");
+            if (target == null) {
+                stub = new PythonServiceStub(Long.parseLong(options.get("stub-latency-ms")),
+                        Long.parseLong(options.get("stub-jitter-ms")),
+                        Double.parseDouble(options.get("stub-error-rate")));
+                stub.start(0);
+                server = startServer(stub.getBaseUrl());
+                target = "http://127.0.0.1:" + server.getEnvironment().getProperty("local.server.port");
+            }
+            new LoadDriver(options).run(target);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    // Passed as command line arguments so they win over application.properties
+    private static ConfigurableApplicationContext startServer(String pythonApiUrl) {
+        return new SpringApplicationBuilder(BigBullServerApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--python.api.url=" + pythonApiUrl,
+                "--bigbull.stream.enabled=false");
+    }
+
+    void run(String target) throws InterruptedException {
+        baseUrl = target;
+        users = Integer.parseInt(options.get("users"));
+        symbols = Integer.parseInt(options.get("symbols"));
+        parseMix(options.get("mix"));
+        seed();
+
+        double rate = Double.parseDouble(options.get("rate"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+        Semaphore inFlight = new Semaphore(Integer.parseInt(options.get("max-in-flight")));
+        System.out.printf("Driving %s: %.0f req/s for %ds after %ds warmup, %d users, %d symbols%n",
+                baseUrl, rate, TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), users, symbols);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long intended = start;
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                intended += (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+                if (intended >= end) {
+                    break;
+                }
+                Request request = nextRequest();
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                boolean measured = intended >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    request.undo();
+                    if (measured) {
+                        dropped.incrementAndGet();
+                    }
+                    continue;
+                }
+                long scheduled = intended;
+                requests.submit(() -> {
+                    try {
+                        execute(request, scheduled, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        report(durationNanos);
+    }
+
+    private void parseMix(String mix) {
+        List<String> names = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            total += Integer.parseInt(parts[1].trim());
+            names.add(parts[0].trim());
+            cumulative.add(total);
+            recorders.put(parts[0].trim(), new Recorder());
+        }
+        operations = names.toArray(new String[0]);
+        weights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Assets and funded wallets; existing ones on a reused target are left as they are
+    private void seed() {
+        for (int s = 0; s < symbols; s++) {
+            String symbol = symbol(s);
+            if (send(get("/api/assets/symbol/" + symbol)).statusCode() != 200) {
+                String asset = "{\"symbol\":\"" + symbol + "\",\"name\":\"Load Test " + s
+                        + "\",\"type\":\"STOCK\",\"quantity\":1,\"costPerUnit\":100}";
+                check(send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/assets"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(asset))
+                        .build()), "create asset " + symbol);
+            }
+        }
+        for (int u = 0; u < users; u++) {
+            String username = USER_PREFIX + u;
+            if (send(get("/api/wallet/" + username)).statusCode() != 200) {
+                check(send(post("/api/wallet/create?username=" + username + "&initialBalance=1000000000")),
+                        "create wallet " + username);
+            }
+            holdings.put(username, new ConcurrentHashMap<>());
+        }
+        System.out.printf("Seeded %d assets and %d wallets%n", symbols, users);
+    }
+
+    private Request nextRequest() {
+        int pick = random.nextInt(weights[weights.length - 1]);
+        int slot = 0;
+        while (pick >= weights[slot]) {
+            slot++;
+        }
+        String operation = operations[slot];
+        String username = USER_PREFIX + random.nextInt(users);
+        // Squaring a uniform draw favours low indices: a handful of popular symbols
+        String symbol = symbol((int) (symbols * Math.pow(random.nextDouble(), 2)));
+
+        return switch (operation) {
+            case "summary" -> new Request(operation, get("/api/portfolio/summary?username=" + username));
+            case "transactions" -> new Request(operation, get("/api/transactions/page?username=" + username + "&limit=20"));
+            case "quote" -> new Request(operation, get("/api/stocks/quote/" + symbol));
+            case "history" -> new Request(operation, get("/api/stocks/history/" + symbol
+                    + "?timeframe=" + TIMEFRAMES[random.nextInt(TIMEFRAMES.length)]));
+            case "buy" -> trade("buy", username, symbol, 1 + random.nextInt(10));
+            case "sell" -> sell(username);
+            default -> throw new IllegalArgumentException("Unknown operation in --mix: " + operation);
+        };
+    }
+
+    private Request sell(String username) {
+        List<Map.Entry<String, AtomicInteger>> owned = new ArrayList<>();
+        for (Map.Entry<String, AtomicInteger> entry : holdings.get(username).entrySet()) {
+            if (entry.getValue().get() > 0) {
+                owned.add(entry);
+            }
+        }
+        if (owned.isEmpty()) {
+            // Nothing to sell yet; keep the trade in the mix as a buy
+            return trade("buy", username, symbol(random.nextInt(symbols)), 1 + random.nextInt(10));
+        }
+        Map.Entry<String, AtomicInteger> position = owned.get(random.nextInt(owned.size()));
+        int units = Math.min(position.getValue().get(), 1 + random.nextInt(5));
+        if (position.getValue().addAndGet(-units) < 0) {
+            position.getValue().addAndGet(units);
+            return trade("buy", username, position.getKey(), units);
+        }
+        return trade("sell", username, position.getKey(), units);
+    }
+
+    private Request trade(String operation, String username, String symbol, int units) {
+        AtomicInteger position = holdings.get(username).computeIfAbsent(symbol, key -> new AtomicInteger());
+        HttpRequest request = post("/api/transactions?username=" + username + "&symbol=" + symbol
+                + "&type=" + operation.toUpperCase(Locale.ROOT) + "&units=" + units);
+        int delta = "buy".equals(operation) ? units : -units;
+        return new Request(operation, request) {
+            @Override
+            void completed(boolean success) {
+                // Sells are reserved when scheduled, buys only count once filled
+                if (success && delta > 0) {
+                    position.addAndGet(delta);
+                } else if (!success && delta < 0) {
+                    position.addAndGet(-delta);
+                }
+            }
+        };
+    }
+
+    private void execute(Request request, long scheduled, boolean measured) {
+        int status;
+        try {
+            status = send(request.http).statusCode();
+        } catch (RuntimeException e) {
+            status = -1;
+        }
+        long latency = System.nanoTime() - scheduled;
+        request.completed(status >= 200 && status < 300);
+        if (measured) {
+            recorders.get(request.operation).record(latency, status);
+        }
+    }
+
+    private void report(long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-13s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "2xx", "4xx", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Recorder all = new Recorder();
+        for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+            entry.getValue().print(entry.getKey(), seconds);
+            all.merge(entry.getValue());
+        }
+        all.print("total", seconds);
+        System.out.printf("dropped (over --max-in-flight): %d%n", dropped.get());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during " + request.uri(), e);
+        } catch (IOException e) {
+            throw new RuntimeException(request.uri() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void check(HttpResponse<String> response, String action) {
+        if (response.statusCode() >= 300) {
+            throw new RuntimeException("Failed to " + action + ": " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static String symbol(int index) {
+        return SYMBOL_PREFIX + String.format("%04d", index);
+    }
+
+    /** One scheduled call; trades override {@link #completed} to keep holdings in step. */
+    private static class Request {
+        final String operation;
+        final HttpRequest http;
+
+        Request(String operation, HttpRequest http) {
+            this.operation = operation;
+            this.http = http;
+        }
+
+        void completed(boolean success) {
+        }
+
+        // The request was never sent
+        void undo() {
+            completed(false);
+        }
+    }
+
+    /** Latencies and outcomes for one endpoint. */
+    private static class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int success;
+        private int clientErrors;
+        private int errors;
+
+        synchronized void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status >= 200 && status < 300) {
+                success++;
+            } else if (status >= 400 && status < 500) {
+                clientErrors++;
+            } else {
+                errors++;
+            }
+        }
+
+        synchronized void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = other.latencies[i];
+            }
+            success += other.success;
+            clientErrors += other.clientErrors;
+            errors += other.errors;
+        }
+
+        synchronized void print(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-13s %9d %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    name, count, success, clientErrors, errors, count / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
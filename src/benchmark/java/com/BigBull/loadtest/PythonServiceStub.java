@@ -0,0 +1,231 @@
+package com.BigBull.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the Python market data service: quote, batched quote
+ * ({@code /stock/multiple}), history, info and search endpoints with the
+ * payload shapes the server parses. Prices follow a random walk per symbol.
+ *
+ * <p>Every response is delayed by {@code latencyMs} plus an exponentially
+ * distributed extra averaging {@code jitterMs}, and fails with HTTP 500 at
+ * {@code errorRate}, so upstream slowness and failures can be dialled in.
+ *
+ * <p>Standalone: {@code java ... com.BigBull.loadtest.PythonServiceStub [port] [latencyMs] [jitterMs] [errorRate]}
+ */
+public class PythonServiceStub {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final ConcurrentHashMap<String, Double> prices = new ConcurrentHashMap<>();
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PythonServiceStub(long latencyMs, long jitterMs, double errorRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        PythonServiceStub stub = new PythonServiceStub(
+                args.length > 1 ? Long.parseLong(args[1]) : 20,
+                args.length > 2 ? Long.parseLong(args[2]) : 10,
+                args.length > 3 ? Double.parseDouble(args[3]) : 0);
+        stub.start(port);
+        System.out.println("Python service stub listening on " + stub.getBaseUrl());
+    }
+
+    /** Starts listening; port 0 picks a free one. */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** Value for {@code python.api.url}. */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            delay();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 500, Map.of("error", "injected failure"));
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring("/api".length());
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String[] parts = path.split("/");
+            Object body;
+            if (path.startsWith("/stock/quote/") || path.startsWith("/crypto/quote/")) {
+                body = quote(parts[3]);
+            } else if (path.equals("/stock/multiple")) {
+                body = multiple(mapper.readTree(exchange.getRequestBody()));
+            } else if (path.startsWith("/stock/history/")) {
+                body = history(parts[3], query.getOrDefault("timeframe", "1M"));
+            } else if (path.startsWith("/stock/info/")) {
+                body = info(parts[3]);
+            } else if (path.equals("/search")) {
+                body = search(query.getOrDefault("query", ""), Integer.parseInt(query.getOrDefault("max_results", "5")));
+            } else {
+                respond(exchange, 404, Map.of("error", "no stub for " + path));
+                return;
+            }
+            respond(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respond(exchange, 500, Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long extra = jitterMs > 0 ? (long) (-jitterMs * Math.log(1 - ThreadLocalRandom.current().nextDouble())) : 0;
+        if (latencyMs + extra > 0) {
+            TimeUnit.MILLISECONDS.sleep(latencyMs + extra);
+        }
+    }
+
+    private Map<String, Object> quote(String symbol) {
+        Map<String, Object> quote = new LinkedHashMap<>();
+        quote.put("symbol", symbol);
+        quote.put("price", nextPrice(symbol));
+        quote.put("volume", ThreadLocalRandom.current().nextInt(1_000, 1_000_000));
+        return quote;
+    }
+
+    private Map<String, Object> multiple(JsonNode request) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (JsonNode symbol : request.path("symbols")) {
+            data.put(symbol.asString(), quote(symbol.asString()));
+        }
+        return Map.of("data", data);
+    }
+
+    // Candles at the resolution the server expects for each timeframe, ending now
+    private Map<String, Object> history(String symbol, String timeframe) {
+        long[] shape = switch (timeframe.toUpperCase()) {
+            case "1D" -> new long[]{DAY, 5 * MINUTE};
+            case "5D" -> new long[]{5 * DAY, 15 * MINUTE};
+            case "1W" -> new long[]{7 * DAY, 60 * MINUTE};
+            case "3M" -> new long[]{92 * DAY, DAY};
+            case "6M" -> new long[]{183 * DAY, DAY};
+            case "1Y" -> new long[]{366 * DAY, DAY};
+            case "2Y" -> new long[]{731 * DAY, 7 * DAY};
+            case "5Y" -> new long[]{1827 * DAY, 7 * DAY};
+            default -> new long[]{31 * DAY, DAY};
+        };
+        long step = shape[1];
+        long end = System.currentTimeMillis() / step * step;
+        double close = prices.computeIfAbsent(symbol, PythonServiceStub::initialPrice);
+        List<Map<String, Object>> candles = new ArrayList<>();
+        for (long t = end - shape[0] + step; t <= end; t += step) {
+            double open = close;
+            close = open * (1 + ThreadLocalRandom.current().nextGaussian() * 0.01);
+            Map<String, Object> candle = new LinkedHashMap<>();
+            candle.put("Date", Instant.ofEpochMilli(t).atOffset(ZoneOffset.UTC).toString());
+            candle.put("Open", open);
+            candle.put("High", Math.max(open, close) * 1.002);
+            candle.put("Low", Math.min(open, close) * 0.998);
+            candle.put("Close", close);
+            candle.put("Volume", ThreadLocalRandom.current().nextInt(1_000, 1_000_000));
+            candles.add(candle);
+        }
+        Map<String, Object> history = new LinkedHashMap<>();
+        history.put("symbol", symbol);
+        history.put("timeframe", timeframe);
+        history.put("data", candles);
+        return history;
+    }
+
+    private Map<String, Object> info(String symbol) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("symbol", symbol);
+        info.put("name", symbol + " Corporation");
+        info.put("sector", "Technology");
+        info.put("marketCap", (long) (nextPrice(symbol) * 1_000_000_000L));
+        info.put("description", "Load test stand-in for " + symbol);
+        return info;
+    }
+
+    private Map<String, Object> search(String query, int maxResults) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < maxResults; i++) {
+            String symbol = (query + i).toUpperCase();
+            results.add(Map.of("symbol", symbol, "name", symbol + " Corporation"));
+        }
+        return Map.of("results", results);
+    }
+
+    private double nextPrice(String symbol) {
+        return prices.compute(symbol, (key, price) -> price == null
+                ? initialPrice(key)
+                : price * (1 + ThreadLocalRandom.current().nextGaussian() * 0.001));
+    }
+
+    private static double initialPrice(String symbol) {
+        return 20.0 + Math.floorMod(symbol.hashCode(), 480);
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+}
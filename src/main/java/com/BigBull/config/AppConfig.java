@@ -1,12 +1,101 @@
 package com.BigBull.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration public class AppConfig {
 
-    @Bean public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @Value("${bigbull.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${bigbull.http.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${bigbull.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${bigbull.http.response-timeout-ms:5000}")
+    private long responseTimeoutMs;
+
+    @Value("${bigbull.http.pool-acquire-timeout-ms:1000}")
+    private long poolAcquireTimeoutMs;
+
+    @Value("${bigbull.http.idle-eviction-ms:30000}")
+    private long idleEvictionMs;
+
+    @Value("${bigbull.http.connection-ttl-ms:300000}")
+    private long connectionTtlMs;
+
+    @Bean public PoolingHttpClientConnectionManager httpConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .build();
+    }
+
+    @Bean public RestTemplate restTemplate(CloseableHttpClient httpClient, ObservationRegistry observationRegistry) {
+        // Observed calls are timed per upstream route and carry the trace context to the Python service
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.setObservationRegistry(observationRegistry);
+        restTemplate.setObservationConvention(new PythonApiObservationConvention());
+        return restTemplate;
+    }
+
+    @Bean public MeterBinder httpPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return registry -> {
+            Gauge.builder("bigbull.http.pool.leased", httpConnectionManager, cm -> cm.getTotalStats().getLeased())
+                    .description("Outbound connections currently in use")
+                    .register(registry);
+            Gauge.builder("bigbull.http.pool.pending", httpConnectionManager, cm -> cm.getTotalStats().getPending())
+                    .description("Requests waiting for an outbound connection")
+                    .register(registry);
+            Gauge.builder("bigbull.http.pool.available", httpConnectionManager, cm -> cm.getTotalStats().getAvailable())
+                    .description("Idle outbound connections kept alive for reuse")
+                    .register(registry);
+            Gauge.builder("bigbull.http.pool.max", httpConnectionManager, cm -> cm.getTotalStats().getMax())
+                    .description("Maximum outbound connections")
+                    .register(registry);
+        };
+    }
+
+    @Bean public ExecutorService quoteExecutor(@Value("${bigbull.quotes.fanout-threads:16}") int threads,
+                                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // Virtual threads need no pool cap here; the HTTP connection pool bounds upstream concurrency
+        return virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(threads);
     }
 }
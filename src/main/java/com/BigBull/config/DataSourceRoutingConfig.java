@@ -0,0 +1,60 @@
+package com.BigBull.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Read/write split, on when {@code bigbull.datasource.read.jdbc-url} is set:
+ * {@code @Transactional(readOnly = true)} work runs on the read pool (a replica,
+ * or the same database with a separate pool), everything else on the primary
+ * pool from {@code spring.datasource.*}. A request that has written reads from
+ * the primary for the rest of the request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bigbull.datasource.read.jdbc-url")
+public class DataSourceRoutingConfig {
+
+    @Bean @ConfigurationProperties("spring.datasource.hikari") public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /** Hikari settings under {@code bigbull.datasource.read.*}: jdbc-url, username, password, maximum-pool-size, ... */
+    @Bean @ConfigurationProperties("bigbull.datasource.read") public HikariDataSource readDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("read");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean @Primary public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource readDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, readDataSource));
+    }
+
+    @Bean public OncePerRequestFilter readYourWritesFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                try (ReadYourWrites.Scope scope = ReadYourWrites.open()) {
+                    chain.doFilter(request, response);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.BigBull.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate second-level cache regions, held on the local heap by Caffeine
+ * through JCache. Assets and wallets are cached by id, and their symbol and
+ * username natural ids map to those ids, so repeated lookups skip the
+ * database. Each region is bounded in size and expires idle entries.
+ */
+@Configuration public class HibernateCacheConfig {
+
+    private static final AtomicInteger MANAGERS = new AtomicInteger();
+
+    @Value("${bigbull.cache.assets.max-size:10000}")
+    private long assetsMaxSize;
+
+    @Value("${bigbull.cache.assets.expire-after-access-ms:3600000}")
+    private long assetsExpireAfterAccessMs;
+
+    @Value("${bigbull.cache.wallets.max-size:100000}")
+    private long walletsMaxSize;
+
+    @Value("${bigbull.cache.wallets.expire-after-access-ms:600000}")
+    private long walletsExpireAfterAccessMs;
+
+    @Bean(destroyMethod = "close") public CacheManager hibernateCacheManager() {
+        // Its own manager per application context, so contexts in one JVM never share cached rows
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("bigbull:hibernate-" + MANAGERS.incrementAndGet()), getClass().getClassLoader());
+        cacheManager.createCache("assets", region(assetsMaxSize, assetsExpireAfterAccessMs));
+        cacheManager.createCache("assets.symbol", region(assetsMaxSize, assetsExpireAfterAccessMs));
+        cacheManager.createCache("wallets", region(walletsMaxSize, walletsExpireAfterAccessMs));
+        cacheManager.createCache("wallets.username", region(walletsMaxSize, walletsExpireAfterAccessMs));
+        return cacheManager;
+    }
+
+    @Bean public HibernatePropertiesCustomizer hibernateSecondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> properties.putAll(Map.of(
+                "hibernate.cache.use_second_level_cache", true,
+                "hibernate.cache.region.factory_class", "jcache",
+                ConfigSettings.CACHE_MANAGER, hibernateCacheManager,
+                // Every region is created above; a missing one is a mapping mistake
+                ConfigSettings.MISSING_CACHE_STRATEGY, "fail"));
+    }
+
+    /** Hits, misses, puts and evictions per region, as {@code cache_*} meters tagged with the region name. */
+    @Bean public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(name));
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long expireAfterAccessMs) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterAccess(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(expireAfterAccessMs)));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.BigBull.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every Spring Data repository call as {@code bigbull.repository.invocations},
+ * tagged with the repository, the method and whether it succeeded.
+ */
+@Configuration public class MetricsConfig {
+
+    @Bean public static BeanPostProcessor repositoryMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Before initialization, so the listener is in place when the repository proxy is built
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(
+                            invocation -> record(meterRegistry.getObject(), invocation)));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void record(MeterRegistry registry, RepositoryMethodInvocation invocation) {
+        Timer.builder("bigbull.repository.invocations")
+                .description("Spring Data repository method calls")
+                .tag("repository", invocation.getRepositoryInterface().getSimpleName())
+                .tag("method", invocation.getMethod().getName())
+                .tag("state", invocation.getResult().getState().name().toLowerCase(Locale.ROOT))
+                .register(registry)
+                .record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,29 @@
+package com.BigBull.config;
+
+import io.micrometer.common.KeyValue;
+import org.springframework.http.client.observation.ClientHttpObservationDocumentation;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+import java.util.regex.Pattern;
+
+/**
+ * Tags outbound calls with the Python route. The clients build concrete URLs
+ * rather than templates, so the symbol is cut back to a placeholder here to
+ * keep one timer per upstream endpoint instead of one per symbol.
+ */
+public class PythonApiObservationConvention extends DefaultClientRequestObservationConvention {
+
+    private static final Pattern SYMBOL_ROUTE = Pattern.compile("(/(?:stock|crypto)/(?:quote|history|info))/[^/]+$");
+
+    @Override
+    protected KeyValue uri(ClientRequestObservationContext context) {
+        String template = context.getUriTemplate();
+        if ((template == null || !template.contains("{")) && context.getCarrier() != null) {
+            String path = context.getCarrier().getURI().getPath();
+            return KeyValue.of(ClientHttpObservationDocumentation.LowCardinalityKeyNames.URI,
+                    SYMBOL_ROUTE.matcher(path).replaceFirst("$1/{symbol}"));
+        }
+        return super.uri(context);
+    }
+}
@@ -0,0 +1,37 @@
+package com.BigBull.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the read pool and everything
+ * else, including work outside a transaction, to the primary. Must sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction's read-only flag is only set after it has asked for its
+ * connection, so the pool is chosen when the first statement runs.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String READ = "read";
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource read) {
+        setTargetDataSources(Map.of(PRIMARY, primary, READ, read));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return ReadYourWrites.hasWritten() ? PRIMARY : READ;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadYourWrites.markWritten();
+        }
+        return PRIMARY;
+    }
+}
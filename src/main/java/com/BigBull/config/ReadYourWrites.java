@@ -0,0 +1,58 @@
+package com.BigBull.config;
+
+import io.micrometer.context.ContextRegistry;
+
+/**
+ * Per-request marker set once a read-write transaction has used the primary,
+ * after which read-only transactions in the same request stay on the primary
+ * too and never miss that write on a lagging replica.
+ *
+ * <p>The marker is registered with the context-propagation registry, so work
+ * handed to {@link com.BigBull.service.TradeSequencer} lanes shares the
+ * marker of the request that queued it.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Marker> CURRENT = new ThreadLocal<>();
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor("bigbull.read-your-writes", CURRENT);
+    }
+
+    private ReadYourWrites() {
+    }
+
+    /** Starts tracking writes for the current request; close it when the request ends. */
+    public static Scope open() {
+        Marker previous = CURRENT.get();
+        CURRENT.set(new Marker());
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    static void markWritten() {
+        Marker marker = CURRENT.get();
+        if (marker != null) {
+            marker.written = true;
+        }
+    }
+
+    static boolean hasWritten() {
+        Marker marker = CURRENT.get();
+        return marker != null && marker.written;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Marker {
+        volatile boolean written;
+    }
+}
@@ -1,5 +1,6 @@
 package com.BigBull.controller;
 
+import com.BigBull.dto.AssetDTO;
 import com.BigBull.entity.Asset;
 import com.BigBull.service.AssetService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,25 +18,25 @@ public class AssetController {
     private AssetService assetService;
 
     @PostMapping
-    public ResponseEntity<Asset> addAsset(@RequestBody Asset asset) {
+    public ResponseEntity<AssetDTO> addAsset(@RequestBody Asset asset) {
         Asset saved = assetService.addOrUpdateAsset(asset);
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(AssetDTO.of(saved));
     }
 
     @GetMapping
-    public ResponseEntity<List<Asset>> getAllAssets() {
+    public ResponseEntity<List<AssetDTO>> getAllAssets() {
         return ResponseEntity.ok(assetService.getAllAssets());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Asset> getAssetById(@PathVariable Long id) {
+    public ResponseEntity<AssetDTO> getAssetById(@PathVariable Long id) {
         return assetService.getAssetById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/symbol/{symbol}")
-    public ResponseEntity<Asset> getAssetBySymbol(@PathVariable String symbol) {
+    public ResponseEntity<AssetDTO> getAssetBySymbol(@PathVariable String symbol) {
         return assetService.getAssetBySymbol(symbol)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -48,9 +49,10 @@ public class AssetController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Asset>> searchAssets(@RequestParam String query) {
+    public ResponseEntity<List<AssetDTO>> searchAssets(@RequestParam String query,
+                                                      @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Asset> results = assetService.searchAssets(query);
+            List<AssetDTO> results = assetService.searchAssets(query, limit);
             return ResponseEntity.ok(results);
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
@@ -1,14 +1,22 @@
 package com.BigBull.controller;
 
+import com.BigBull.dto.AssetDTO;
 import com.BigBull.dto.BuyAssetRequest;
 import com.BigBull.dto.PortfolioSummary;
 import com.BigBull.dto.SellAssetRequest;
-import com.BigBull.entity.Asset;
+import com.BigBull.service.ExportService;
 import com.BigBull.service.PortfolioService;
+import com.BigBull.service.PortfolioStreamService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +28,12 @@ public class PortfolioController {
     @Autowired
     private PortfolioService portfolioService;
 
+    @Autowired
+    private PortfolioStreamService portfolioStreamService;
+
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping("/summary")
     public ResponseEntity<?> getPortfolioSummary(@RequestParam String username) {
         try {
@@ -32,16 +46,47 @@ public class PortfolioController {
         }
     }
 
+    /** Live valuation: a "summary" event, then a "delta" event per price move or trade. */
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamPortfolio(@RequestParam String username) {
+        try {
+            SseEmitter emitter = portfolioStreamService.subscribe(username);
+            return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/list")
-    public ResponseEntity<List<Asset>> getPortfolioList() {
+    public ResponseEntity<List<AssetDTO>> getPortfolioList(@RequestParam(required = false) String username) {
         try {
-            List<Asset> assets = portfolioService.getPortfolioList();
+            List<AssetDTO> assets = portfolioService.getPortfolioList(username);
             return ResponseEntity.ok(assets);
         } catch (Exception e) {
             return ResponseEntity.status(500).build();
         }
     }
 
+    /** Snapshot of every holding, or one user's, as a CSV or NDJSON download streamed from the database. */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportHoldings(
+            @RequestParam(required = false) String username,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
+        }
+        response.setContentType(exportFormat.mediaType(gzip));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName("holdings", gzip)).build().toString());
+        exportService.exportHoldings(username, exportFormat, gzip, response.getOutputStream());
+        return null;
+    }
+
     public static class ErrorResponse {
         private int code;
         private String message;
@@ -1,7 +1,12 @@
 package com.BigBull.controller;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import com.BigBull.service.CandleStore;
+import com.BigBull.service.StockLookupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,43 +14,50 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 
 @RestController
 @RequestMapping("/api/stocks")
 @CrossOrigin(origins = "*")
 public class StockController {
     
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String FLASK_BASE_URL = "http://localhost:5000";
+    @Autowired
+    private StockLookupService stockLookupService;
+
+    @Autowired
+    private CandleStore candleStore;
     
     @GetMapping("/search")
     public ResponseEntity<Map> searchStocks(@RequestParam String query,
                                            @RequestParam(defaultValue = "5") int maxResults) {
-        String url = FLASK_BASE_URL + "/api/search?query=" + query + "&max_results=" + maxResults;
-        Map response = restTemplate.getForObject(url, Map.class);
-        return ResponseEntity.ok(response);
+        return cached(stockLookupService.search(query, maxResults));
     }
     
     @GetMapping("/history/{symbol}")
     public ResponseEntity<Map> getStockHistory(@PathVariable String symbol,
-                                               @RequestParam(defaultValue = "1M") String timeframe) {
-        String url = FLASK_BASE_URL + "/api/stock/history/" + symbol + "?timeframe=" + timeframe;
-        Map response = restTemplate.getForObject(url, Map.class);
-        return ResponseEntity.ok(response);
+                                               @RequestParam(defaultValue = "1M") String timeframe,
+                                               @RequestParam(required = false) String interval) {
+        try {
+            return ResponseEntity.ok(candleStore.getHistory(symbol, timeframe, interval));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/info/{symbol}")
     public ResponseEntity<Map> getStockInfo(@PathVariable String symbol) {
-        String url = FLASK_BASE_URL + "/api/stock/info/" + symbol;
-        Map response = restTemplate.getForObject(url, Map.class);
-        return ResponseEntity.ok(response);
+        return cached(stockLookupService.info(symbol));
     }
     
     @GetMapping("/quote/{symbol}")
     public ResponseEntity<Map> getStockQuote(@PathVariable String symbol) {
-        String url = FLASK_BASE_URL + "/api/stock/quote/" + symbol;
-        Map response = restTemplate.getForObject(url, Map.class);
-        return ResponseEntity.ok(response);
+        return cached(stockLookupService.quote(symbol));
+    }
+
+    // Lets browsers and CDNs reuse the response for as long as our own cache would
+    private ResponseEntity<Map> cached(StockLookupService.Lookup lookup) {
+        CacheControl cacheControl = lookup.getBody() != null
+                ? CacheControl.maxAge(lookup.getMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic()
+                : CacheControl.noStore();
+        return ResponseEntity.ok().cacheControl(cacheControl).body(lookup.getBody());
     }
 }
@@ -1,14 +1,29 @@
 package com.BigBull.controller;
 
+import com.BigBull.dto.BatchOrderRequest;
 import com.BigBull.dto.TransactionResponse;
-import com.BigBull.entity.Transaction;
+import com.BigBull.dto.TransactionDTO;
+import com.BigBull.service.ExportService;
+import com.BigBull.service.TradeJournalService;
+import com.BigBull.service.TransactionImportService;
+import com.BigBull.service.TradeSequencer;
 import com.BigBull.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -18,6 +33,18 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private TradeJournalService tradeJournalService;
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping
     public ResponseEntity<?> executeTransaction(
             @RequestParam String username,
@@ -25,7 +52,9 @@ public class TransactionController {
             @RequestParam String type,
             @RequestParam int units) {
         try {
-            TransactionResponse response = transactionService.executeTransaction(username, symbol, type, units);
+            TransactionResponse response = tradeSequencer.execute(username, () -> tradeJournalService.isEnabled()
+                    ? tradeJournalService.executeTransaction(username, symbol, type, units)
+                    : transactionService.executeTransaction(username, symbol, type, units));
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
@@ -34,8 +63,37 @@ public class TransactionController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> executeBatch(@RequestBody BatchOrderRequest request) {
+        try {
+            List<TransactionResponse> responses = tradeSequencer.execute(request.getUsername(), () -> {
+                tradeJournalService.awaitProjected(request.getUsername());
+                return transactionService.executeBatch(request.getUsername(), request.getOrders());
+            });
+            return ResponseEntity.ok(responses);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(new ErrorResponse(500, "Internal server error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> importTransactions(
+            InputStream body,
+            @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding) {
+        try {
+            InputStream csv = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 1 << 16) : body;
+            return ResponseEntity.ok(transactionImportService.importCsv(csv));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(new ErrorResponse(500, "Internal server error: " + e.getMessage()));
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
         try {
             return ResponseEntity.ok(transactionService.getAllTransactions());
         } catch (Exception e) {
@@ -43,8 +101,60 @@ public class TransactionController {
         }
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<?> getTransactionPage(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionPage(username, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(new ErrorResponse(500, "Internal server error: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamTransactions(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> transactionService.streamTransactions(username, from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Full history as a CSV or NDJSON download, written to the response as it
+     * is read from the database; runs on the request thread so a long export
+     * is not cut off by the async request timeout.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportTransactions(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(400, e.getMessage()));
+        }
+        response.setContentType(exportFormat.mediaType(gzip));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName("transactions", gzip)).build().toString());
+        exportService.exportTransactions(username, symbol, from, to, exportFormat, gzip, response.getOutputStream());
+        return null;
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Transaction> getTransactionById(@PathVariable Long id) {
+    public ResponseEntity<TransactionDTO> getTransactionById(@PathVariable Long id) {
         try {
             return ResponseEntity.ok(transactionService.getTransactionById(id));
         } catch (RuntimeException e) {
@@ -55,7 +165,7 @@ public class TransactionController {
     }
 
     @GetMapping("/user/{username}")
-    public ResponseEntity<List<Transaction>> getTransactionsByUsername(@PathVariable String username) {
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByUsername(@PathVariable String username) {
         try {
             return ResponseEntity.ok(transactionService.getTransactionsByUsername(username));
         } catch (Exception e) {
@@ -64,7 +174,7 @@ public class TransactionController {
     }
 
     @GetMapping("/asset/{assetId}")
-    public ResponseEntity<List<Transaction>> getTransactionsByAssetId(@PathVariable Long assetId) {
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByAssetId(@PathVariable Long assetId) {
         try {
             return ResponseEntity.ok(transactionService.getTransactionsByAssetId(assetId));
         } catch (Exception e) {
@@ -2,6 +2,8 @@ package com.BigBull.controller;
 
 import com.BigBull.dto.WalletDTO;
 import com.BigBull.entity.Wallet;
+import com.BigBull.service.TradeJournalService;
+import com.BigBull.service.TradeSequencer;
 import com.BigBull.service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,12 @@ public class WalletController {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private TradeJournalService tradeJournalService;
+
     @PostMapping("/create")
     public ResponseEntity<?> createWallet(@RequestParam String username, @RequestParam Double initialBalance) {
         try {
@@ -47,7 +55,10 @@ public class WalletController {
             if (amount == null || amount <= 0) {
                 return ResponseEntity.badRequest().body("Deposit amount must be greater than 0");
             }
-            walletService.depositFunds(username, amount);
+            tradeSequencer.execute(username, () -> {
+                tradeJournalService.awaitProjected(username);
+                walletService.depositFunds(username, amount);
+            });
             Wallet wallet = walletService.getWalletByUsername(username);
             return ResponseEntity.ok(convertToDTO(wallet));
         } catch (RuntimeException e) {
@@ -61,7 +72,10 @@ public class WalletController {
             if (amount == null || amount <= 0) {
                 return ResponseEntity.badRequest().body("Withdrawal amount must be greater than 0");
             }
-            walletService.withdrawFunds(username, amount);
+            tradeSequencer.execute(username, () -> {
+                tradeJournalService.awaitProjected(username);
+                walletService.withdrawFunds(username, amount);
+            });
             Wallet wallet = walletService.getWalletByUsername(username);
             return ResponseEntity.ok(convertToDTO(wallet));
         } catch (RuntimeException e) {
@@ -0,0 +1,35 @@
+package com.BigBull.dto;
+
+import com.BigBull.entity.Asset;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssetDTO {
+    private Long id;
+    private String symbol;
+    private String name;
+    private String type;
+    private Double quantity;
+    private Double costPerUnit;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static AssetDTO of(Asset asset) {
+        return new AssetDTO(
+                asset.getId(),
+                asset.getSymbol(),
+                asset.getName(),
+                asset.getType(),
+                asset.getQuantity(),
+                asset.getCostPerUnit(),
+                asset.getCreatedAt(),
+                asset.getUpdatedAt()
+        );
+    }
+}
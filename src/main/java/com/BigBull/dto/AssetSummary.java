@@ -32,6 +32,17 @@ public class AssetSummary {
         this.gainPercentage = gainPercentage;
     }
 
+    /** Values {@code quantity} units bought at {@code costPerUnit} at the given market price. */
+    public static AssetSummary of(Long id, String symbol, String name, String type, double quantity,
+                                  double costPerUnit, double currentPrice) {
+        double totalValue = currentPrice * quantity;
+        double totalCostValue = costPerUnit * quantity;
+        double unrealizedGain = totalValue - totalCostValue;
+        double gainPercentage = (totalCostValue > 0) ? (unrealizedGain / totalCostValue) * 100 : 0;
+        return new AssetSummary(id, symbol, name, type, quantity, costPerUnit, currentPrice, totalValue,
+                totalCostValue, unrealizedGain, gainPercentage);
+    }
+
     // Getters & Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,11 @@
+package com.BigBull.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchOrderRequest {
+    private String username;
+    private List<OrderRequest> orders;
+}
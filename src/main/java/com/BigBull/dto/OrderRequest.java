@@ -0,0 +1,10 @@
+package com.BigBull.dto;
+
+import lombok.Data;
+
+@Data
+public class OrderRequest {
+    private String symbol;
+    private String type;
+    private int units;
+}
@@ -0,0 +1,26 @@
+package com.BigBull.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Change to a streamed portfolio since the previous event. Totals are always
+ * sent; only the positions that moved are listed, and wallet figures are
+ * included only after a trade.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PortfolioDelta {
+    private String username;
+    private Double currentBalance;
+    private Double totalInvested;
+    private Double totalWithdrawn;
+    private double portfolioValue;
+    private double totalGain;
+    private double gainPercentage;
+    private double realizedGain;
+    private List<AssetSummary> assets;
+    private List<String> closed;
+}
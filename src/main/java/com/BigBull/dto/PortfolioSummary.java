@@ -10,6 +10,7 @@ public class PortfolioSummary {
     private double portfolioValue;
     private double totalGain;
     private double gainPercentage;
+    private double realizedGain;
     private List<AssetSummary> assets;
 
     public PortfolioSummary() {
@@ -17,7 +18,7 @@ public class PortfolioSummary {
 
     public PortfolioSummary(String username, double currentBalance, double totalInvested,
                             double totalWithdrawn, double portfolioValue, double totalGain,
-                            double gainPercentage, List<AssetSummary> assets) {
+                            double gainPercentage, double realizedGain, List<AssetSummary> assets) {
         this.username = username;
         this.currentBalance = currentBalance;
         this.totalInvested = totalInvested;
@@ -25,6 +26,7 @@ public class PortfolioSummary {
         this.portfolioValue = portfolioValue;
         this.totalGain = totalGain;
         this.gainPercentage = gainPercentage;
+        this.realizedGain = realizedGain;
         this.assets = assets;
     }
 
@@ -49,6 +51,9 @@ public class PortfolioSummary {
     public double getGainPercentage() { return gainPercentage; }
     public void setGainPercentage(double gainPercentage) { this.gainPercentage = gainPercentage; }
 
+    public double getRealizedGain() { return realizedGain; }
+    public void setRealizedGain(double realizedGain) { this.realizedGain = realizedGain; }
+
     public List<AssetSummary> getAssets() { return assets; }
     public void setAssets(List<AssetSummary> assets) { this.assets = assets; }
 }
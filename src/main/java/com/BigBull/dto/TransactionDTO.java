@@ -0,0 +1,23 @@
+package com.BigBull.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionDTO {
+    private Long id;
+    private String username;
+    private Long assetId;
+    private String symbol;
+    private String type;
+    private Integer units;
+    private Double quantity;
+    private Double price;
+    private Double totalAmount;
+    private LocalDateTime transactionDate;
+}
@@ -0,0 +1,24 @@
+package com.BigBull.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. {@code errors} lists the first rejected rows by
+ * line number; {@code rowsRejected} counts all of them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionImportResult {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private int usersRebuilt;
+    private List<String> errors;
+    private long elapsedMs;
+    private long rowsPerSecond;
+}
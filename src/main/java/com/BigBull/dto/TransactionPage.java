@@ -0,0 +1,15 @@
+package com.BigBull.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+    private List<TransactionDTO> transactions;
+    private String nextCursor;
+}
@@ -1,12 +1,9 @@
 package com.BigBull.dto;
 
-import com.BigBull.entity.Asset;
-import com.BigBull.entity.Wallet;
-
 public class TransactionResponse {
     private Long transactionId;
     private String username;
-    private Asset asset;
+    private AssetDTO asset;
     private String type;
     private int units;
     private double price;
@@ -19,7 +16,7 @@ public class TransactionResponse {
     public TransactionResponse() {
     }
 
-    public TransactionResponse(Long transactionId, String username, Asset asset, String type,
+    public TransactionResponse(Long transactionId, String username, AssetDTO asset, String type,
                              int units, double price, double totalAmount, String timestamp,
                              double walletBalance, double assetQuantity, String message) {
         this.transactionId = transactionId;
@@ -42,8 +39,8 @@ public class TransactionResponse {
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
 
-    public Asset getAsset() { return asset; }
-    public void setAsset(Asset asset) { this.asset = asset; }
+    public AssetDTO getAsset() { return asset; }
+    public void setAsset(AssetDTO asset) { this.asset = asset; }
 
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
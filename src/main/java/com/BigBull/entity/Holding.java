@@ -0,0 +1,62 @@
+package com.BigBull.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "holdings",
+        uniqueConstraints = @UniqueConstraint(name = "uk_holdings_username_asset", columnNames = {"username", "asset_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Holding {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "asset_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Asset asset;
+
+    @Column(nullable = false)
+    private Double quantity;
+
+    @Column(name = "average_cost", nullable = false)
+    private Double averageCost;
+
+    // Profit or loss locked in by sells, against the average cost at the time
+    @Column(name = "realized_pnl", nullable = false)
+    private Double realizedPnl;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -1,6 +1,6 @@
 package com.BigBull.entity;
 
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 
@@ -12,16 +12,19 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     // Getters and Setters
+    // Table-backed ids handed out in blocks of 50, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transactions_seq")
+    @TableGenerator(name = "transactions_seq", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "transactions", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String username;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "asset_id", nullable = false)
-    @JsonBackReference
+    @JsonIgnore
     private Asset asset;
 
     @Column(nullable = false)
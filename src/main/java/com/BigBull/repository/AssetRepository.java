@@ -1,15 +1,36 @@
 package com.BigBull.repository;
 
+import com.BigBull.dto.AssetDTO;
 import com.BigBull.entity.Asset;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AssetRepository extends JpaRepository<Asset, Long> {
-    Optional<Asset> findBySymbol(String symbol);
+public interface AssetRepository extends JpaRepository<Asset, Long>, AssetRepositoryCustom {
+    List<Asset> findBySymbolIn(Collection<String> symbols);
 
-    List<Asset> findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase(String symbol, String name);
+    @Query("SELECT a.symbol FROM Asset a")
+    List<String> findAllSymbols();
+
+    @Query("SELECT new com.BigBull.dto.AssetDTO(a.id, a.symbol, a.name, a.type, a.quantity, a.costPerUnit, a.createdAt, a.updatedAt) FROM Asset a")
+    List<AssetDTO> findAllViews();
+
+    @Query("SELECT new com.BigBull.dto.AssetDTO(a.id, a.symbol, a.name, a.type, a.quantity, a.costPerUnit, a.createdAt, a.updatedAt) FROM Asset a WHERE a.id = :id")
+    Optional<AssetDTO> findViewById(@Param("id") Long id);
+
+    @Query("SELECT new com.BigBull.dto.AssetDTO(a.id, a.symbol, a.name, a.type, a.quantity, a.costPerUnit, a.createdAt, a.updatedAt) FROM Asset a WHERE a.id IN :ids")
+    List<AssetDTO> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.BigBull.dto.AssetDTO(a.id, a.symbol, a.name, a.type, a.quantity, a.costPerUnit, a.createdAt, a.updatedAt) FROM Asset a WHERE a.symbol = :symbol")
+    Optional<AssetDTO> findViewBySymbol(@Param("symbol") String symbol);
+
+    @Query("SELECT new com.BigBull.dto.AssetDTO(a.id, a.symbol, a.name, a.type, a.quantity, a.costPerUnit, a.createdAt, a.updatedAt) FROM Asset a"
+            + " WHERE LOWER(a.symbol) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(a.name) LIKE LOWER(CONCAT('%', :query, '%'))")
+    List<AssetDTO> searchViews(@Param("query") String query);
 }
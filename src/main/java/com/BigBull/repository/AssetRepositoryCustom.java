@@ -0,0 +1,18 @@
+package com.BigBull.repository;
+
+import com.BigBull.entity.Asset;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface AssetRepositoryCustom {
+
+    /** Resolved through the symbol natural-id cache and the entity cache before the database. */
+    Optional<Asset> findBySymbol(String symbol);
+
+    /**
+     * Adds net buys and sells to the asset-wide quantity and weighted cost in
+     * one atomic UPDATE. Flushes before and clears the persistence context after.
+     */
+    int applyTrade(Long id, double buyUnits, double buyAmount, double sellUnits, LocalDateTime now);
+}
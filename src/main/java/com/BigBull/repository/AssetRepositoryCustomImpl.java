@@ -0,0 +1,53 @@
+package com.BigBull.repository;
+
+import com.BigBull.entity.Asset;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+class AssetRepositoryCustomImpl implements AssetRepositoryCustom {
+
+    // Weighted average cost over the net buys, quantity floored at zero. cost_per_unit is set
+    // first because MySQL evaluates SET assignments left to right against updated values.
+    private static final String APPLY_TRADE = "UPDATE assets SET"
+            + " cost_per_unit = CASE WHEN COALESCE(quantity, 0) + :buyUnits > 0"
+            + " THEN (COALESCE(quantity, 0) * COALESCE(cost_per_unit, 0) + :buyAmount) / (COALESCE(quantity, 0) + :buyUnits)"
+            + " ELSE cost_per_unit END,"
+            + " quantity = CASE WHEN COALESCE(quantity, 0) + :buyUnits - :sellUnits > 0"
+            + " THEN COALESCE(quantity, 0) + :buyUnits - :sellUnits ELSE 0 END,"
+            + " updated_at = :now, version = version + 1"
+            + " WHERE id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<Asset> findBySymbol(String symbol) {
+        return EntityCaches.findByNaturalId(entityManager, Asset.class, symbol);
+    }
+
+    @Override
+    @Transactional
+    public int applyTrade(Long id, double buyUnits, double buyAmount, double sellUnits, LocalDateTime now) {
+        // Plain SQL rather than JPQL, so only this asset leaves the second-level cache
+        entityManager.flush();
+        int updated = jdbcTemplate.update(APPLY_TRADE, new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("buyUnits", buyUnits)
+                .addValue("buyAmount", buyAmount)
+                .addValue("sellUnits", sellUnits)
+                .addValue("now", now));
+        entityManager.clear();
+        EntityCaches.evict(entityManager, Asset.class, id);
+        return updated;
+    }
+}
@@ -0,0 +1,50 @@
+package com.BigBull.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Second-level cache helpers for the repository fragments.
+ */
+final class EntityCaches {
+
+    private EntityCaches() {
+    }
+
+    /**
+     * Loads by natural id through the natural-id and entity caches. Outside a
+     * transaction it uses a short-lived session, which only takes a connection
+     * on a cache miss.
+     */
+    static <T> Optional<T> findByNaturalId(EntityManager entityManager, Class<T> type, Object naturalId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return entityManager.unwrap(Session.class).bySimpleNaturalId(type).loadOptional(naturalId);
+        }
+        try (Session session = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).openSession()) {
+            return session.bySimpleNaturalId(type).loadOptional(naturalId);
+        }
+    }
+
+    /**
+     * Drops one cached entity changed by plain SQL, now and again once the
+     * transaction completes, so a concurrent read cannot re-cache the old row.
+     * A bulk JPQL update would instead empty the entity's whole region.
+     */
+    static void evict(EntityManager entityManager, Class<?> type, Object id) {
+        jakarta.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(type, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(type, id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.BigBull.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Plain JDBC reads over the holdings table, for exports too large to load as entities.
+ */
+@Repository
+public class HoldingQueryRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${bigbull.jdbc.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * Pushes every holding, or one user's, to {@code handler} straight off a
+     * forward-only cursor, ordered by user and asset.
+     */
+    public void stream(String username, RowCallbackHandler handler) {
+        String sql = "SELECT h.username, a.symbol, h.quantity, h.average_cost, h.realized_pnl, h.updated_at"
+                + " FROM holdings h JOIN assets a ON a.id = h.asset_id"
+                + (username != null ? " WHERE h.username = ?" : "")
+                + " ORDER BY h.username, h.asset_id";
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            if (username != null) {
+                ps.setString(1, username);
+            }
+            return ps;
+        }, handler);
+    }
+}
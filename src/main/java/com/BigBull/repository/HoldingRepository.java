@@ -0,0 +1,27 @@
+package com.BigBull.repository;
+
+import com.BigBull.dto.AssetDTO;
+import com.BigBull.entity.Asset;
+import com.BigBull.entity.Holding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldingRepository extends JpaRepository<Holding, Long> {
+    Optional<Holding> findByUsernameAndAsset(String username, Asset asset);
+
+    List<Holding> findByUsernameAndAssetIn(String username, Collection<Asset> assets);
+
+    @Query("SELECT h FROM Holding h JOIN FETCH h.asset WHERE h.username = :username")
+    List<Holding> findAllByUsernameWithAsset(@Param("username") String username);
+
+    @Query("SELECT new com.BigBull.dto.AssetDTO(a.id, a.symbol, a.name, a.type, a.quantity, a.costPerUnit, a.createdAt, a.updatedAt)"
+            + " FROM Holding h JOIN h.asset a WHERE h.username = :username AND h.quantity > 0")
+    List<AssetDTO> findActiveAssetViewsByUsername(@Param("username") String username);
+}
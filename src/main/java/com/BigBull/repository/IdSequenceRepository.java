@@ -0,0 +1,32 @@
+package com.BigBull.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out id blocks from the {@code id_sequences} table the same way
+ * Hibernate's pooled-lo table generator does ({@code next_val} is the next
+ * unused id), so ids reserved here never collide with ids Hibernate assigns.
+ */
+@Repository
+public class IdSequenceRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Reserves {@code count} consecutive ids and returns the first; committed on its own so the block stays taken. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserve(String sequenceName, int count) {
+        // The UPDATE locks the row, so the read below sees this block's end and nobody else's
+        if (jdbcTemplate.update("UPDATE id_sequences SET next_val = next_val + ? WHERE sequence_name = ?",
+                count, sequenceName) == 0) {
+            throw new RuntimeException("Unknown id sequence: " + sequenceName);
+        }
+        Long next = jdbcTemplate.queryForObject("SELECT next_val FROM id_sequences WHERE sequence_name = ?",
+                Long.class, sequenceName);
+        return next - count;
+    }
+}
@@ -0,0 +1,180 @@
+package com.BigBull.repository;
+
+import com.BigBull.dto.TransactionDTO;
+import com.BigBull.entity.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC reads over the transactions table, ordered newest first on
+ * (transaction_date, id) so pages can resume from a keyset cursor, and the
+ * batched inserts of trades projected from the trade journal or imported.
+ */
+@Repository
+public class TransactionQueryRepository {
+
+    private static final String SELECT = "SELECT t.id, t.username, t.asset_id, a.symbol, t.type, t.units, t.quantity,"
+            + " t.price_per_unit, t.total_amount, t.transaction_date"
+            + " FROM transactions t JOIN assets a ON a.id = t.asset_id";
+
+    private static final String ORDER = " ORDER BY t.transaction_date DESC, t.id DESC";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${bigbull.jdbc.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * Returns up to {@code limit} rows strictly after the cursor position
+     * ({@code afterDate}, {@code afterId}), or from the newest row when no cursor is given.
+     */
+    public List<TransactionDTO> findPage(String username, LocalDateTime from, LocalDateTime to,
+                                         LocalDateTime afterDate, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT).append(where(username, null, from, to, args));
+        if (afterDate != null && afterId != null) {
+            sql.append(" AND (t.transaction_date < ? OR (t.transaction_date = ? AND t.id < ?))");
+            args.add(afterDate);
+            args.add(afterDate);
+            args.add(afterId);
+        }
+        sql.append(ORDER).append(" LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs), args.toArray());
+    }
+
+    /**
+     * Pushes every matching row to {@code handler} straight off a forward-only
+     * cursor, so memory use does not grow with the result size.
+     */
+    public void stream(String username, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        stream(username, null, from, to, handler);
+    }
+
+    /** As {@link #stream(String, LocalDateTime, LocalDateTime, RowCallbackHandler)}, also narrowed to one asset symbol when given. */
+    public void stream(String username, String symbol, LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(username, symbol, from, to, args) + ORDER;
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+
+    /** Inserts rows whose ids were reserved up front, tagged with the journal entry each came from. */
+    public void insertJournaled(List<Transaction> transactions, List<Long> journalSeqs) {
+        insert(transactions, journalSeqs);
+    }
+
+    /** Inserts rows whose ids were reserved up front, as one JDBC batch. */
+    public void insert(List<Transaction> transactions) {
+        insert(transactions, null);
+    }
+
+    /**
+     * Pushes one user's rows to {@code handler} oldest first, straight off a
+     * forward-only cursor, for replaying the history into holdings.
+     */
+    public void streamHistory(String username, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT t.asset_id, t.type, t.quantity, t.price_per_unit"
+                            + " FROM transactions t WHERE t.username = ? ORDER BY t.transaction_date, t.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            ps.setString(1, username);
+            return ps;
+        }, handler);
+    }
+
+    private void insert(List<Transaction> transactions, List<Long> journalSeqs) {
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, username, asset_id, quantity, type, units, price,"
+                        + " price_per_unit, total_amount, transaction_date, journal_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Transaction transaction = transactions.get(i);
+                        ps.setLong(1, transaction.getId());
+                        ps.setString(2, transaction.getUsername());
+                        ps.setLong(3, transaction.getAsset().getId());
+                        ps.setDouble(4, transaction.getQuantity());
+                        ps.setString(5, transaction.getType());
+                        ps.setInt(6, transaction.getUnits());
+                        ps.setDouble(7, transaction.getPrice());
+                        ps.setDouble(8, transaction.getPricePerUnit());
+                        ps.setDouble(9, transaction.getTotalAmount());
+                        ps.setObject(10, transaction.getTransactionDate());
+                        if (journalSeqs != null) {
+                            ps.setLong(11, journalSeqs.get(i));
+                        } else {
+                            ps.setNull(11, Types.BIGINT);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return transactions.size();
+                    }
+                });
+    }
+
+    /** Highest journal sequence already in the table, or 0 when none is. */
+    public long maxJournalSeq() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(journal_seq) FROM transactions", Long.class);
+        return max != null ? max : 0;
+    }
+
+    public static TransactionDTO mapRow(ResultSet rs) throws SQLException {
+        return new TransactionDTO(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getLong("asset_id"),
+                rs.getString("symbol"),
+                rs.getString("type"),
+                rs.getInt("units"),
+                rs.getDouble("quantity"),
+                rs.getDouble("price_per_unit"),
+                rs.getDouble("total_amount"),
+                rs.getObject("transaction_date", LocalDateTime.class)
+        );
+    }
+
+    private String where(String username, String symbol, LocalDateTime from, LocalDateTime to, List<Object> args) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (username != null) {
+            where.append(" AND t.username = ?");
+            args.add(username);
+        }
+        if (symbol != null) {
+            where.append(" AND a.symbol = ?");
+            args.add(symbol);
+        }
+        if (from != null) {
+            where.append(" AND t.transaction_date >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            where.append(" AND t.transaction_date < ?");
+            args.add(to);
+        }
+        return where.toString();
+    }
+}
@@ -1,12 +1,14 @@
 package com.BigBull.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.BigBull.dto.TransactionDTO;
 import com.BigBull.entity.Asset;
 import com.BigBull.entity.Transaction;
 
@@ -20,4 +22,20 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     @Query("SELECT t FROM Transaction t WHERE t.asset.symbol = :symbol")
     List<Transaction> findByAssetSymbol(@Param("symbol") String symbol);
+
+    @Query("SELECT new com.BigBull.dto.TransactionDTO(t.id, t.username, a.id, a.symbol, t.type, t.units, t.quantity, t.pricePerUnit, t.totalAmount, t.transactionDate)"
+            + " FROM Transaction t JOIN t.asset a")
+    List<TransactionDTO> findAllViews();
+
+    @Query("SELECT new com.BigBull.dto.TransactionDTO(t.id, t.username, a.id, a.symbol, t.type, t.units, t.quantity, t.pricePerUnit, t.totalAmount, t.transactionDate)"
+            + " FROM Transaction t JOIN t.asset a WHERE t.id = :id")
+    Optional<TransactionDTO> findViewById(@Param("id") Long id);
+
+    @Query("SELECT new com.BigBull.dto.TransactionDTO(t.id, t.username, a.id, a.symbol, t.type, t.units, t.quantity, t.pricePerUnit, t.totalAmount, t.transactionDate)"
+            + " FROM Transaction t JOIN t.asset a WHERE t.username = :username")
+    List<TransactionDTO> findViewsByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.BigBull.dto.TransactionDTO(t.id, t.username, a.id, a.symbol, t.type, t.units, t.quantity, t.pricePerUnit, t.totalAmount, t.transactionDate)"
+            + " FROM Transaction t JOIN t.asset a WHERE a.id = :assetId")
+    List<TransactionDTO> findViewsByAssetId(@Param("assetId") Long assetId);
 }
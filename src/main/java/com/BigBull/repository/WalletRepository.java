@@ -3,9 +3,7 @@ package com.BigBull.repository;
 import com.BigBull.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
-import java.util.Optional;
 
 @Repository
-public interface WalletRepository extends JpaRepository<Wallet, Long> {
-    Optional<Wallet> findByUsername(String username);
+public interface WalletRepository extends JpaRepository<Wallet, Long>, WalletRepositoryCustom {
 }
@@ -0,0 +1,20 @@
+package com.BigBull.repository;
+
+import com.BigBull.entity.Wallet;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface WalletRepositoryCustom {
+
+    /** Resolved through the username natural-id cache and the entity cache before the database. */
+    Optional<Wallet> findByUsername(String username);
+
+    // Atomic balance changes; the version bump makes concurrent entity updates fail their optimistic check.
+    // Both flush before and clear the persistence context after.
+
+    /** Takes {@code amount} only if the balance covers it; returns 0 when it does not or there is no wallet. */
+    int debit(String username, double amount, double invested, LocalDateTime now);
+
+    int credit(String username, double amount, double withdrawn, LocalDateTime now);
+}
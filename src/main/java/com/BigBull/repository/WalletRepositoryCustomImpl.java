@@ -0,0 +1,65 @@
+package com.BigBull.repository;
+
+import com.BigBull.entity.Wallet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+class WalletRepositoryCustomImpl implements WalletRepositoryCustom {
+
+    private static final String DEBIT = "UPDATE wallet SET balance = balance - :amount,"
+            + " total_invested = total_invested + :invested, updated_at = :now, version = version + 1"
+            + " WHERE id = :id AND balance >= :amount";
+
+    private static final String CREDIT = "UPDATE wallet SET balance = balance + :amount,"
+            + " total_withdrawn = total_withdrawn + :withdrawn, updated_at = :now, version = version + 1"
+            + " WHERE id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<Wallet> findByUsername(String username) {
+        return EntityCaches.findByNaturalId(entityManager, Wallet.class, username);
+    }
+
+    @Override
+    @Transactional
+    public int debit(String username, double amount, double invested, LocalDateTime now) {
+        return update(username, DEBIT, new MapSqlParameterSource()
+                .addValue("amount", amount)
+                .addValue("invested", invested)
+                .addValue("now", now));
+    }
+
+    @Override
+    @Transactional
+    public int credit(String username, double amount, double withdrawn, LocalDateTime now) {
+        return update(username, CREDIT, new MapSqlParameterSource()
+                .addValue("amount", amount)
+                .addValue("withdrawn", withdrawn)
+                .addValue("now", now));
+    }
+
+    // Plain SQL by id rather than JPQL, so only this wallet leaves the second-level cache
+    private int update(String username, String sql, MapSqlParameterSource params) {
+        Optional<Long> id = findByUsername(username).map(Wallet::getId);
+        if (id.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        int updated = jdbcTemplate.update(sql, params.addValue("id", id.get()));
+        entityManager.clear();
+        EntityCaches.evict(entityManager, Wallet.class, id.get());
+        return updated;
+    }
+}
@@ -0,0 +1,555 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.AssetDTO;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory autocomplete index over asset symbols and names. Every asset is
+ * a dense document number; postings are sorted int arrays in an
+ * open-addressing table keyed by the gram packed into a long.
+ *
+ * <p>Results are ranked in tiers (exact symbol, symbol prefix, name prefix,
+ * word prefix, symbol substring, name substring), ties going to the shorter
+ * and then alphabetically first symbol. Each tier has its own postings: one-
+ * and two-character prefixes of the symbol, of the name and of each later
+ * word of the name, and trigrams of the symbol and of the name for the rest
+ * of the query. Queries shorter than three characters match prefixes only.
+ *
+ * <p>Documents are numbered in rank order, so a tier is walked best first
+ * and the walk stops once nothing further can enter the result; a search
+ * touches little more than {@code limit} candidates however common the
+ * query. Assets put since the last {@link #compact()} are appended after the
+ * ranked documents and always checked; the index compacts itself once they
+ * (and removed documents) pass a fraction of its size.
+ *
+ * <p>Updates take a write lock; removed documents are tombstoned and
+ * skipped by searches until the next compaction.
+ */
+public class AssetSearchIndex {
+
+    private static final int EXACT_SYMBOL = 6;
+    private static final int SYMBOL_PREFIX = 5;
+    private static final int NAME_PREFIX = 4;
+    private static final int WORD_PREFIX = 3;
+    private static final int SYMBOL_SUBSTRING = 2;
+    private static final int NAME_SUBSTRING = 1;
+
+    // Gram kinds in the top bits of the key, which also keeps every key non-zero
+    private static final long SYMBOL_TRIGRAM = 1L << 48;
+    private static final long NAME_TRIGRAM = 2L << 48;
+    private static final long SYMBOL_START = 3L << 48;
+    private static final long NAME_START = 4L << 48;
+    private static final long WORD_START = 5L << 48;
+
+    private static final int MIN_COMPACTION = 4096;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] assetIds = new long[64];
+    private String[] symbols = new String[64];
+    private String[] names = new String[64];
+    private boolean[] removed = new boolean[64];
+    private int documents;
+    private int ranked;
+    private int live;
+
+    private Postings postings = new Postings();
+    private DocumentsById documentsById = new DocumentsById();
+
+    /** Indexes an asset, replacing any earlier version of it. */
+    public void put(long assetId, String symbol, String name) {
+        lock.writeLock().lock();
+        try {
+            append(assetId, normalize(symbol), normalize(name));
+            if ((documents - ranked) + (documents - live) > Math.max(MIN_COMPACTION, ranked / 16)) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexes many assets with a single compaction at the end. */
+    public void putAll(Collection<AssetDTO> assets) {
+        lock.writeLock().lock();
+        try {
+            for (AssetDTO asset : assets) {
+                append(asset.getId(), normalize(asset.getSymbol()), normalize(asset.getName()));
+            }
+            compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long assetId) {
+        lock.writeLock().lock();
+        try {
+            int doc = documentsById.get(assetId);
+            if (doc >= 0) {
+                removed[doc] = true;
+                documentsById.put(assetId, -1);
+                live--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Renumbers the live documents in rank order and rebuilds the postings,
+     * dropping removed ones. Holds the write lock for the whole rebuild.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            Integer[] order = new Integer[live];
+            int n = 0;
+            for (int doc = 0; doc < documents; doc++) {
+                if (!removed[doc]) {
+                    order[n++] = doc;
+                }
+            }
+            Arrays.sort(order, this::rank);
+
+            long[] oldIds = assetIds;
+            String[] oldSymbols = symbols;
+            String[] oldNames = names;
+            int capacity = Math.max(64, live);
+            assetIds = new long[capacity];
+            symbols = new String[capacity];
+            names = new String[capacity];
+            removed = new boolean[capacity];
+            postings = new Postings();
+            documentsById = new DocumentsById();
+            documents = 0;
+            live = 0;
+            for (int doc : order) {
+                append(oldIds[doc], oldSymbols[doc], oldNames[doc]);
+            }
+            ranked = documents;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids of the best matching assets, best first, at most {@code limit} of them. */
+    public long[] search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            Top top = new Top(Math.min(limit, live));
+            if (top.docs.length == 0) {
+                return new long[0];
+            }
+            collect(q, SYMBOL_PREFIX, EXACT_SYMBOL, SYMBOL_START, SYMBOL_TRIGRAM, top);
+            collect(q, NAME_PREFIX, NAME_PREFIX, NAME_START, NAME_TRIGRAM, top);
+            collect(q, WORD_PREFIX, WORD_PREFIX, WORD_START, NAME_TRIGRAM, top);
+            if (q.length() >= 3) {
+                collect(q, SYMBOL_SUBSTRING, SYMBOL_SUBSTRING, 0, SYMBOL_TRIGRAM, top);
+                collect(q, NAME_SUBSTRING, NAME_SUBSTRING, 0, NAME_TRIGRAM, top);
+            }
+
+            long[] ids = new long[top.count];
+            for (int i = 0; i < top.count; i++) {
+                ids[i] = assetIds[top.docs[i]];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Offers the documents scoring between {@code low} and {@code high} to the
+     * top list. Candidates are the prefix postings of {@code start} (if
+     * non-zero) intersected with the query's trigrams of kind {@code trigrams}.
+     */
+    private void collect(String q, int low, int high, long start, long trigrams, Top top) {
+        if (top.full() && top.scores[top.count - 1] > high) {
+            return;
+        }
+        Intersection candidates = intersection(q, start, trigrams);
+        if (candidates == null) {
+            return;
+        }
+
+        int doc;
+        while ((doc = candidates.next()) >= 0) {
+            if (removed[doc]) {
+                continue;
+            }
+            // An exact symbol outranks every other symbol prefix, so testing with the low score is safe
+            if (top.full() && !better(doc, low, top.docs[top.count - 1], top.scores[top.count - 1])) {
+                // Ranked documents only get worse from here; the unranked tail still has to be checked
+                if (doc < ranked) {
+                    candidates.skipTo(ranked);
+                }
+                continue;
+            }
+            int score = score(doc, q);
+            if (score >= low && score <= high) {
+                top.offer(doc, score);
+            }
+        }
+    }
+
+    private Intersection intersection(String q, long start, long trigrams) {
+        int grams = Math.max(0, q.length() - 2);
+        int[] slots = new int[grams + (start != 0 ? 1 : 0)];
+        int n = 0;
+        if (start != 0) {
+            slots[n++] = postings.find(q.length() == 1 ? key(start, q.charAt(0), '\0', '\0')
+                    : key(start, q.charAt(0), q.charAt(1), '\0'));
+        }
+        for (int i = 0; i < grams; i++) {
+            slots[n++] = postings.find(key(trigrams, q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+        }
+        for (int slot : slots) {
+            if (slot < 0) {
+                return null;
+            }
+        }
+        return new Intersection(postings, slots);
+    }
+
+    private int score(int doc, String q) {
+        String symbol = symbols[doc];
+        String name = names[doc];
+        if (symbol.equals(q)) {
+            return EXACT_SYMBOL;
+        }
+        if (symbol.startsWith(q)) {
+            return SYMBOL_PREFIX;
+        }
+        if (name.startsWith(q)) {
+            return NAME_PREFIX;
+        }
+        int at = name.indexOf(q);
+        while (at > 0) {
+            if (!Character.isLetterOrDigit(name.charAt(at - 1))) {
+                return WORD_PREFIX;
+            }
+            at = name.indexOf(q, at + 1);
+        }
+        if (q.length() < 3) {
+            return 0;
+        }
+        if (symbol.contains(q)) {
+            return SYMBOL_SUBSTRING;
+        }
+        return name.contains(q) ? NAME_SUBSTRING : 0;
+    }
+
+    private boolean better(int doc, int score, int other, int otherScore) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        return rank(doc, other) < 0;
+    }
+
+    // Order among equal scores: shorter symbol first, then alphabetical
+    private int rank(int doc, int other) {
+        if (symbols[doc].length() != symbols[other].length()) {
+            return symbols[doc].length() < symbols[other].length() ? -1 : 1;
+        }
+        return symbols[doc].compareTo(symbols[other]);
+    }
+
+    private void append(long assetId, String symbol, String name) {
+        int previous = documentsById.get(assetId);
+        if (previous >= 0) {
+            if (symbol.equals(symbols[previous]) && name.equals(names[previous])) {
+                return;
+            }
+            removed[previous] = true;
+            live--;
+        }
+        int doc = documents++;
+        ensureCapacity(documents);
+        assetIds[doc] = assetId;
+        symbols[doc] = symbol;
+        names[doc] = name;
+        documentsById.put(assetId, doc);
+        live++;
+
+        addTrigrams(doc, symbol, SYMBOL_TRIGRAM);
+        addTrigrams(doc, name, NAME_TRIGRAM);
+        addPrefixes(doc, symbol, 0, SYMBOL_START);
+        addPrefixes(doc, name, 0, NAME_START);
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isLetterOrDigit(name.charAt(i - 1))) {
+                addPrefixes(doc, name, i, WORD_START);
+            }
+        }
+    }
+
+    private void addTrigrams(int doc, String text, long kind) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.add(key(kind, text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)), doc);
+        }
+    }
+
+    private void addPrefixes(int doc, String text, int at, long kind) {
+        if (at < text.length()) {
+            postings.add(key(kind, text.charAt(at), '\0', '\0'), doc);
+            if (at + 1 < text.length()) {
+                postings.add(key(kind, text.charAt(at), text.charAt(at + 1), '\0'), doc);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > assetIds.length) {
+            int grown = Math.max(capacity, assetIds.length * 2);
+            assetIds = Arrays.copyOf(assetIds, grown);
+            symbols = Arrays.copyOf(symbols, grown);
+            names = Arrays.copyOf(names, grown);
+            removed = Arrays.copyOf(removed, grown);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Three UTF-16 units in the low 48 bits under the gram kind
+    private static long key(long kind, char a, char b, char c) {
+        return kind | ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /** Best documents so far, ordered by score and then rank. */
+    private final class Top {
+        final int[] docs;
+        final int[] scores;
+        int count;
+
+        Top(int limit) {
+            docs = new int[limit];
+            scores = new int[limit];
+        }
+
+        boolean full() {
+            return count == docs.length;
+        }
+
+        void offer(int doc, int score) {
+            if (full() && !better(doc, score, docs[count - 1], scores[count - 1])) {
+                return;
+            }
+            int i = full() ? count - 1 : count++;
+            while (i > 0 && better(doc, score, docs[i - 1], scores[i - 1])) {
+                docs[i] = docs[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            docs[i] = doc;
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Documents on every one of a set of postings lists, in document order.
+     * Walks the shortest list and gallops through the others.
+     */
+    private static final class Intersection {
+        private final int[][] lists;
+        private final int[] sizes;
+        private final int[] cursors;
+        private int lead;
+
+        Intersection(Postings postings, int[] slots) {
+            lists = new int[slots.length][];
+            sizes = new int[slots.length];
+            cursors = new int[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                lists[i] = postings.lists[slots[i]];
+                sizes[i] = postings.sizes[slots[i]];
+                if (sizes[i] < sizes[lead]) {
+                    lead = i;
+                }
+            }
+        }
+
+        /** Next document on all lists, -1 when there is none. */
+        int next() {
+            candidates:
+            while (cursors[lead] < sizes[lead]) {
+                int doc = lists[lead][cursors[lead]++];
+                for (int i = 0; i < lists.length; i++) {
+                    if (i == lead) {
+                        continue;
+                    }
+                    cursors[i] = advance(lists[i], sizes[i], cursors[i], doc);
+                    if (cursors[i] == sizes[i]) {
+                        cursors[lead] = sizes[lead];
+                        return -1;
+                    }
+                    if (lists[i][cursors[i]] != doc) {
+                        continue candidates;
+                    }
+                }
+                return doc;
+            }
+            return -1;
+        }
+
+        void skipTo(int doc) {
+            cursors[lead] = advance(lists[lead], sizes[lead], cursors[lead], doc);
+        }
+
+        // First position at or after from holding a document >= doc
+        private static int advance(int[] list, int size, int from, int doc) {
+            int step = 1;
+            int hi = from;
+            while (hi < size && list[hi] < doc) {
+                from = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            hi = Math.min(hi, size);
+            while (from < hi) {
+                int mid = (from + hi) >>> 1;
+                if (list[mid] < doc) {
+                    from = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return from;
+        }
+    }
+
+    /** Gram key to a sorted, duplicate-free list of document numbers. */
+    private static final class Postings {
+        private long[] keys = new long[1024];
+        int[][] lists = new int[1024][];
+        int[] sizes = new int[1024];
+        private int used;
+
+        // Documents are added in increasing order, so each list stays sorted by appending
+        void add(long key, int doc) {
+            int slot = slot(keys, key);
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                lists[slot] = new int[2];
+                if (++used * 2 > keys.length) {
+                    resize();
+                    slot = slot(keys, key);
+                }
+            }
+            int size = sizes[slot];
+            int[] list = lists[slot];
+            if (size > 0 && list[size - 1] == doc) {
+                return;
+            }
+            if (size == list.length) {
+                list = lists[slot] = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = doc;
+            sizes[slot] = size + 1;
+        }
+
+        /** Slot of the key's list, -1 if nothing was indexed under it. */
+        int find(long key) {
+            int slot = slot(keys, key);
+            return keys[slot] == 0 ? -1 : slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[][] oldLists = lists;
+            int[] oldSizes = sizes;
+            keys = new long[oldKeys.length * 2];
+            lists = new int[keys.length][];
+            sizes = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    lists[slot] = oldLists[i];
+                    sizes[slot] = oldSizes[i];
+                }
+            }
+        }
+    }
+
+    /** Asset id to document number, -1 when absent. */
+    private static final class DocumentsById {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private boolean[] filled = new boolean[1024];
+        private int used;
+
+        int get(long id) {
+            int slot = find(id);
+            return filled[slot] ? values[slot] : -1;
+        }
+
+        void put(long id, int doc) {
+            int slot = find(id);
+            if (!filled[slot]) {
+                filled[slot] = true;
+                keys[slot] = id;
+                if (++used * 2 > keys.length) {
+                    values[slot] = doc;
+                    resize();
+                    return;
+                }
+            }
+            values[slot] = doc;
+        }
+
+        private int find(long id) {
+            int mask = keys.length - 1;
+            int slot = mix(id) & mask;
+            while (filled[slot] && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldFilled = filled;
+            keys = new long[oldKeys.length * 2];
+            values = new int[keys.length];
+            filled = new boolean[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldFilled[i]) {
+                    int slot = find(oldKeys[i]);
+                    filled[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
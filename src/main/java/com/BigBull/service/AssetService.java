@@ -1,13 +1,18 @@
 package com.BigBull.service;
 
+import com.BigBull.dto.AssetDTO;
 import com.BigBull.dto.AssetSummary;
 import com.BigBull.entity.Asset;
 import com.BigBull.repository.AssetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,16 +20,64 @@ import java.util.Optional;
 @Service
 public class AssetService {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private AssetRepository assetRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private QuoteService quoteService;
+
+    @Autowired
+    private PriceStreamClient priceStreamClient;
+
+    @Autowired
+    private TradeJournalService tradeJournalService;
+
+    private final AssetSearchIndex searchIndex = new AssetSearchIndex();
 
-    private static final String PYTHON_API_URL = "http://localhost:5000/api";
+    private volatile boolean searchIndexReady;
+
+    /**
+     * Relevance-ranked autocomplete over symbols and names, served from the
+     * in-memory index; only the matching rows are read from the database.
+     */
+    @Transactional(readOnly = true)
+    public List<AssetDTO> searchAssets(String query, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        if (!searchIndexReady) {
+            return assetRepository.searchViews(query).stream().limit(max).toList();
+        }
 
-    public List<Asset> searchAssets(String query) {
-        return assetRepository.findBySymbolContainingIgnoreCaseOrNameContainingIgnoreCase(query, query);
+        long[] ids = searchIndex.search(query, max);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, AssetDTO> views = new HashMap<>();
+        for (AssetDTO view : assetRepository.findViewsByIdIn(idList)) {
+            views.put(view.getId(), view);
+        }
+
+        // Back in ranked order; an asset deleted by another instance is simply skipped
+        List<AssetDTO> results = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            AssetDTO view = views.get(id);
+            if (view != null) {
+                results.add(view);
+            }
+        }
+        return results;
+    }
+
+    /** Builds the search index once the application is up; searches use SQL until then. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        searchIndex.putAll(assetRepository.findAllViews());
+        searchIndexReady = true;
     }
 
     public Asset addOrUpdateAsset(Asset incoming) {
@@ -34,59 +87,48 @@ public class AssetService {
         if (existing == null) {
             incoming.setCreatedAt(LocalDateTime.now());
             incoming.setUpdatedAt(LocalDateTime.now());
-            return assetRepository.save(incoming);
+            Asset saved = assetRepository.save(incoming);
+            searchIndex.put(saved.getId(), saved.getSymbol(), saved.getName());
+            priceStreamClient.subscribe(saved.getSymbol());
+            return saved;
         }
 
         // Calculate weighted average cost
-        double existingValue = existing.getQuantity() * existing.getCostPerUnit();
-        double incomingValue = incoming.getQuantity() * incoming.getCostPerUnit();
-        double newQuantity = existing.getQuantity() + incoming.getQuantity();
-        double newAvgCost = (existingValue + incomingValue) / newQuantity;
+        double newAvgCost = HoldingService.weightedAverageCost(existing.getQuantity(), existing.getCostPerUnit(),
+                incoming.getQuantity(), incoming.getCostPerUnit());
 
-        existing.setQuantity(newQuantity);
+        existing.setQuantity(existing.getQuantity() + incoming.getQuantity());
         existing.setCostPerUnit(newAvgCost);
         existing.setUpdatedAt(LocalDateTime.now());
 
         return assetRepository.save(existing);
     }
 
-    public List<Asset> getAllAssets() {
-        return assetRepository.findAll();
+    public List<AssetDTO> getAllAssets() {
+        return assetRepository.findAllViews();
     }
 
-    public Optional<Asset> getAssetById(Long id) {
-        return assetRepository.findById(id);
+    public Optional<AssetDTO> getAssetById(Long id) {
+        return assetRepository.findViewById(id);
     }
 
-    public Optional<Asset> getAssetBySymbol(String symbol) {
-        return assetRepository.findBySymbol(symbol);
+    public Optional<AssetDTO> getAssetBySymbol(String symbol) {
+        return assetRepository.findViewBySymbol(symbol);
     }
 
     public void deleteAsset(Long id) {
-        assetRepository.deleteById(id);
+        assetRepository.findById(id).ifPresent(asset -> {
+            // In journal mode, waits for the orders already journaled against the asset
+            tradeJournalService.deleteAsset(asset, () -> assetRepository.delete(asset));
+            searchIndex.remove(asset.getId());
+            priceStreamClient.unsubscribe(asset.getSymbol());
+        });
     }
 
     public AssetSummary getAssetSummary(Asset asset) {
         try {
             double currentPrice = getCurrentPrice(asset.getSymbol(), asset.getType());
-            double totalValue = currentPrice * asset.getQuantity();
-            double totalCostValue = asset.getCostPerUnit() * asset.getQuantity();
-            double unrealizedGain = totalValue - totalCostValue;
-            double gainPercentage = (totalCostValue > 0) ? (unrealizedGain / totalCostValue) * 100 : 0;
-
-            return new AssetSummary(
-                    asset.getId(),
-                    asset.getSymbol(),
-                    asset.getName(),
-                    asset.getType(),
-                    asset.getQuantity(),
-                    asset.getCostPerUnit(),
-                    currentPrice,
-                    totalValue,
-                    totalCostValue,
-                    unrealizedGain,
-                    gainPercentage
-            );
+            return getAssetSummary(asset, asset.getQuantity(), asset.getCostPerUnit(), currentPrice);
         } catch (Exception e) {
             double totalValue = asset.getCostPerUnit() * asset.getQuantity();
             return new AssetSummary(
@@ -105,23 +147,14 @@ public class AssetService {
         }
     }
 
+    private AssetSummary getAssetSummary(Asset asset, double quantity, double costPerUnit, double currentPrice) {
+        return AssetSummary.of(asset.getId(), asset.getSymbol(), asset.getName(), asset.getType(),
+                quantity, costPerUnit, currentPrice);
+    }
+
     private double getCurrentPrice(String symbol, String assetType) {
         try {
-            String endpoint = (assetType != null && assetType.equalsIgnoreCase("CRYPTO"))
-                    ? "/crypto/quote/" + symbol
-                    : "/stock/quote/" + symbol;
-
-            String url = PYTHON_API_URL + endpoint;
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey("price")) {
-                Object priceObj = response.get("price");
-                if (priceObj instanceof Number) {
-                    return ((Number) priceObj).doubleValue();
-                } else if (priceObj instanceof String) {
-                    return Double.parseDouble((String) priceObj);
-                }
-            }
+            return quoteService.getPrice(symbol, assetType);
         } catch (Exception e) {
             System.err.println("Error fetching price for " + symbol + ": " + e.getMessage());
         }
@@ -0,0 +1,210 @@
+package com.BigBull.service;
+
+import java.util.Arrays;
+
+/**
+ * OHLCV candles of one symbol at one resolution, kept as parallel primitive
+ * arrays sorted by bucket start time (epoch millis). Not thread-safe; the
+ * {@link CandleStore} guards each symbol's series.
+ */
+public final class CandleSeries {
+
+    public static final long MINUTE = 60_000L;
+    public static final long HOUR = 60 * MINUTE;
+    public static final long DAY = 24 * HOUR;
+    public static final long WEEK = 7 * DAY;
+
+    // 1970-01-05 was the first Monday; weekly buckets start on Monday like exchange weeks
+    private static final long WEEK_OFFSET = 4 * DAY;
+
+    private final long resolution;
+    private final long offset;
+    private final int maxCandles;
+
+    private long[] time;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    private int size;
+
+    public CandleSeries(long resolution, int maxCandles) {
+        this(resolution, defaultOffset(resolution), maxCandles);
+    }
+
+    /**
+     * Series whose buckets start {@code offset} millis into each resolution
+     * step, e.g. hourly candles opening at half past like exchange sessions.
+     */
+    public CandleSeries(long resolution, long offset, int maxCandles) {
+        this(resolution, Math.floorMod(offset, resolution), maxCandles, 16);
+    }
+
+    private CandleSeries(long resolution, long offset, int maxCandles, int capacity) {
+        this.resolution = resolution;
+        this.offset = offset;
+        this.maxCandles = maxCandles;
+        this.time = new long[capacity];
+        this.open = new double[capacity];
+        this.high = new double[capacity];
+        this.low = new double[capacity];
+        this.close = new double[capacity];
+        this.volume = new double[capacity];
+    }
+
+    public long getResolution() { return resolution; }
+
+    public long getOffset() { return offset; }
+
+    public int size() { return size; }
+
+    public long time(int i) { return time[i]; }
+    public double open(int i) { return open[i]; }
+    public double high(int i) { return high[i]; }
+    public double low(int i) { return low[i]; }
+    public double close(int i) { return close[i]; }
+    public double volume(int i) { return volume[i]; }
+
+    public long firstTime() {
+        return size > 0 ? time[0] : Long.MAX_VALUE;
+    }
+
+    public long lastTime() {
+        return size > 0 ? time[size - 1] : Long.MIN_VALUE;
+    }
+
+    /** Start of the bucket containing {@code epochMillis}. */
+    public long bucket(long epochMillis) {
+        return Math.floorDiv(epochMillis - offset, resolution) * resolution + offset;
+    }
+
+    public static long defaultOffset(long resolution) {
+        return resolution == WEEK ? WEEK_OFFSET : 0;
+    }
+
+    /** Appends a candle after the last one, replacing it when both share a bucket. */
+    public void append(long epochMillis, double o, double h, double l, double c, double v) {
+        long t = bucket(epochMillis);
+        if (size > 0 && time[size - 1] == t) {
+            set(size - 1, t, o, h, l, c, v);
+            return;
+        }
+        if (size > 0 && t < time[size - 1]) {
+            throw new IllegalArgumentException("Candle out of order: " + t + " < " + time[size - 1]);
+        }
+        ensureCapacity(size + 1);
+        set(size++, t, o, h, l, c, v);
+        trim();
+    }
+
+    /**
+     * Folds a live price into the series: the current bucket's candle is
+     * extended, or a new one is opened. Prices older than the last candle are ignored.
+     */
+    public void tick(long epochMillis, double price) {
+        long t = bucket(epochMillis);
+        if (size > 0 && time[size - 1] == t) {
+            int i = size - 1;
+            high[i] = Math.max(high[i], price);
+            low[i] = Math.min(low[i], price);
+            close[i] = price;
+        } else if (size == 0 || t > time[size - 1]) {
+            append(t, price, price, price, price, 0);
+        }
+    }
+
+    /**
+     * Merges freshly fetched candles of the same resolution into this series.
+     * Where both have a candle for a bucket the fetched one wins.
+     */
+    public void merge(CandleSeries fetched) {
+        int n = size + fetched.size;
+        CandleSeries merged = new CandleSeries(resolution, offset, maxCandles, Math.max(16, n));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < fetched.size) {
+            if (j >= fetched.size || (i < size && time[i] < fetched.time[j])) {
+                merged.set(merged.size++, time[i], open[i], high[i], low[i], close[i], volume[i]);
+                i++;
+            } else {
+                merged.set(merged.size++, fetched.time[j], fetched.open[j], fetched.high[j], fetched.low[j],
+                        fetched.close[j], fetched.volume[j]);
+                if (i < size && time[i] == fetched.time[j]) {
+                    i++;
+                }
+                j++;
+            }
+        }
+        time = merged.time;
+        open = merged.open;
+        high = merged.high;
+        low = merged.low;
+        close = merged.close;
+        volume = merged.volume;
+        size = merged.size;
+        trim();
+    }
+
+    /** Index of the first candle at or after {@code epochMillis}. */
+    public int indexOf(long epochMillis) {
+        int index = Arrays.binarySearch(time, 0, size, epochMillis);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Aggregates the candles from {@code fromMillis} onwards into buckets of
+     * {@code targetResolution}, which must be a multiple of this resolution.
+     */
+    public CandleSeries downsample(long targetResolution, long fromMillis) {
+        CandleSeries target = new CandleSeries(targetResolution, Integer.MAX_VALUE);
+        for (int i = indexOf(fromMillis); i < size; i++) {
+            long t = target.bucket(time[i]);
+            if (target.size > 0 && target.time[target.size - 1] == t) {
+                int k = target.size - 1;
+                target.high[k] = Math.max(target.high[k], high[i]);
+                target.low[k] = Math.min(target.low[k], low[i]);
+                target.close[k] = close[i];
+                target.volume[k] += volume[i];
+            } else {
+                target.append(t, open[i], high[i], low[i], close[i], volume[i]);
+            }
+        }
+        return target;
+    }
+
+    private void set(int i, long t, double o, double h, double l, double c, double v) {
+        time[i] = t;
+        open[i] = o;
+        high[i] = h;
+        low[i] = l;
+        close[i] = c;
+        volume[i] = v;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > time.length) {
+            int grown = Math.max(capacity, time.length * 2);
+            time = Arrays.copyOf(time, grown);
+            open = Arrays.copyOf(open, grown);
+            high = Arrays.copyOf(high, grown);
+            low = Arrays.copyOf(low, grown);
+            close = Arrays.copyOf(close, grown);
+            volume = Arrays.copyOf(volume, grown);
+        }
+    }
+
+    // Drops the oldest candles once the series is over its cap
+    private void trim() {
+        int excess = size - maxCandles;
+        if (excess > 0) {
+            System.arraycopy(time, excess, time, 0, maxCandles);
+            System.arraycopy(open, excess, open, 0, maxCandles);
+            System.arraycopy(high, excess, high, 0, maxCandles);
+            System.arraycopy(low, excess, low, 0, maxCandles);
+            System.arraycopy(close, excess, close, 0, maxCandles);
+            System.arraycopy(volume, excess, volume, 0, maxCandles);
+            size = maxCandles;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.BigBull.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process OHLC history per symbol. Each symbol keeps one
+ * {@link CandleSeries} per resolution, filled from the Python history
+ * endpoint the first time a window is asked for and then extended by live
+ * ticks from the {@link PriceBook}. A timeframe is answered from any stored
+ * series that covers its window at the same or a finer resolution,
+ * downsampling when needed, so repeat chart requests never go upstream.
+ * Timeframes or payloads this store does not understand are passed through.
+ */
+@Service
+public class CandleStore implements PriceBook.PriceListener {
+
+    private static final String[] TIME_KEYS = {"date", "Date", "datetime", "Datetime", "timestamp", "time"};
+    private static final String[][] VALUE_KEYS = {
+            {"open", "Open"}, {"high", "High"}, {"low", "Low"}, {"close", "Close"}, {"volume", "Volume"}};
+
+    // Resolutions a fetched history can be recognised as
+    private static final long[] RESOLUTIONS = {
+            CandleSeries.MINUTE, 2 * CandleSeries.MINUTE, 5 * CandleSeries.MINUTE, 15 * CandleSeries.MINUTE,
+            30 * CandleSeries.MINUTE, CandleSeries.HOUR, CandleSeries.DAY, CandleSeries.WEEK};
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Value("${python.api.url:http://localhost:5000/api}")
+    private String pythonApiUrl;
+
+    @Value("${bigbull.candles.max-symbols:2000}")
+    private long maxSymbols;
+
+    @Value("${bigbull.candles.max-per-series:10000}")
+    private int maxPerSeries;
+
+    private Cache<String, SymbolCandles> symbols;
+
+    @PostConstruct
+    void init() {
+        symbols = Caffeine.newBuilder()
+                .maximumSize(maxSymbols)
+                .recordStats()
+                .build();
+        priceBook.addListener(this);
+    }
+
+    @PreDestroy
+    void stop() {
+        priceBook.removeListener(this);
+    }
+
+    /**
+     * Returns the history for {@code timeframe}, optionally re-bucketed to
+     * {@code interval} (1m, 5m, 15m, 30m, 1h, 1d or 1wk).
+     */
+    public Map<String, Object> getHistory(String symbol, String timeframe, String interval) {
+        Timeframe window = Timeframe.of(timeframe);
+        Long resolution = interval != null ? parseInterval(interval) : null;
+        if (window == null) {
+            return fetch(symbol, timeframe);
+        }
+
+        SymbolCandles candles = symbols.get(symbol, key -> new SymbolCandles());
+        Map<String, Object> history = candles.render(window, resolution, timeframe, System.currentTimeMillis());
+        if (history != null) {
+            return history;
+        }
+
+        // One upstream fill per symbol at a time; the others then find it stored
+        candles.fetchLock.lock();
+        try {
+            history = candles.render(window, resolution, timeframe, System.currentTimeMillis());
+            if (history != null) {
+                return history;
+            }
+            long fetchedAt = System.currentTimeMillis();
+            Map<String, Object> raw = fetch(symbol, timeframe);
+            if (!candles.absorb(window, raw, fetchedAt)) {
+                return raw;
+            }
+            history = candles.render(window, resolution, timeframe, fetchedAt);
+            return history != null ? history : raw;
+        } finally {
+            candles.fetchLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPrice(String symbol, double price) {
+        SymbolCandles candles = symbols.getIfPresent(symbol);
+        if (candles != null) {
+            candles.tick(System.currentTimeMillis(), price);
+        }
+    }
+
+    private Map<String, Object> fetch(String symbol, String timeframe) {
+        String url = UriComponentsBuilder.fromUriString(pythonApiUrl)
+                .path("/stock/history/{symbol}")
+                .queryParam("timeframe", timeframe)
+                .buildAndExpand(symbol)
+                .toUriString();
+        return restTemplate.getForObject(url, Map.class);
+    }
+
+    private static long parseInterval(String interval) {
+        return switch (interval) {
+            case "1m" -> CandleSeries.MINUTE;
+            case "5m" -> 5 * CandleSeries.MINUTE;
+            case "15m" -> 15 * CandleSeries.MINUTE;
+            case "30m" -> 30 * CandleSeries.MINUTE;
+            case "1h" -> CandleSeries.HOUR;
+            case "1d" -> CandleSeries.DAY;
+            case "1wk", "1w" -> CandleSeries.WEEK;
+            default -> throw new IllegalArgumentException("Unsupported interval: " + interval);
+        };
+    }
+
+    /** Known chart windows, with the resolution the upstream normally answers them at. */
+    private enum Timeframe {
+        D1("1D", CandleSeries.DAY, 5 * CandleSeries.MINUTE),
+        D5("5D", 5 * CandleSeries.DAY, 15 * CandleSeries.MINUTE),
+        W1("1W", CandleSeries.WEEK, CandleSeries.HOUR),
+        M1("1M", 31 * CandleSeries.DAY, CandleSeries.DAY),
+        M3("3M", 92 * CandleSeries.DAY, CandleSeries.DAY),
+        M6("6M", 183 * CandleSeries.DAY, CandleSeries.DAY),
+        Y1("1Y", 366 * CandleSeries.DAY, CandleSeries.DAY),
+        Y2("2Y", 731 * CandleSeries.DAY, CandleSeries.WEEK),
+        Y5("5Y", 1827 * CandleSeries.DAY, CandleSeries.WEEK);
+
+        final String code;
+        final long lookback;
+        final long resolution;
+
+        Timeframe(String code, long lookback, long resolution) {
+            this.code = code;
+            this.lookback = lookback;
+            this.resolution = resolution;
+        }
+
+        static Timeframe of(String code) {
+            for (Timeframe timeframe : values()) {
+                if (timeframe.code.equalsIgnoreCase(code)) {
+                    return timeframe;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Every stored resolution of one symbol, plus the upstream payload shape to answer in. */
+    private final class SymbolCandles {
+        final ReentrantLock fetchLock = new ReentrantLock();
+
+        private final TreeMap<Long, CandleSeries> series = new TreeMap<>();
+        // Earliest time each series is complete from, and when it was last fetched or ticked
+        private final Map<Long, Long> coveredFrom = new HashMap<>();
+        private final Map<Long, Long> updatedAt = new HashMap<>();
+        // Resolution the upstream actually used per timeframe, once seen
+        private final Map<Timeframe, Long> observed = new HashMap<>();
+
+        private Map<String, Object> template;
+        private String listKey;
+        private String[] names;
+
+        synchronized void tick(long now, double price) {
+            for (CandleSeries candles : series.values()) {
+                candles.tick(now, price);
+                updatedAt.put(candles.getResolution(), now);
+            }
+        }
+
+        /**
+         * Answers {@code window} from the coarsest stored series that divides
+         * the wanted resolution, covers the window and is fresh; null if none does.
+         */
+        synchronized Map<String, Object> render(Timeframe window, Long interval, String timeframe, long now) {
+            if (template == null) {
+                return null;
+            }
+            long resolution = interval != null ? interval : observed.getOrDefault(window, window.resolution);
+            for (CandleSeries candles : series.headMap(resolution, true).descendingMap().values()) {
+                long step = candles.getResolution();
+                if (resolution % step != 0 || candles.size() == 0) {
+                    continue;
+                }
+
+                // Anchored at the last candle so a closed market still shows its last session
+                long from = Math.min(now, candles.lastTime() + step) - window.lookback;
+                boolean covered = coveredFrom.get(step) <= from;
+                boolean fresh = now - updatedAt.get(step) <= refreshAfter(step);
+                if (covered && fresh) {
+                    CandleSeries answer = step == resolution ? candles : candles.downsample(resolution, from);
+                    return toPayload(answer, answer == candles ? from : Long.MIN_VALUE, timeframe);
+                }
+            }
+            return null;
+        }
+
+        /** Stores a fetched history; false if the payload is not a recognisable candle list. */
+        synchronized boolean absorb(Timeframe window, Map<String, Object> raw, long fetchedAt) {
+            CandleSeries fetched = parse(raw);
+            if (fetched == null) {
+                return false;
+            }
+            long step = fetched.getResolution();
+            CandleSeries existing = series.get(step);
+            if (existing != null && existing.getOffset() == fetched.getOffset()) {
+                existing.merge(fetched);
+            } else {
+                series.put(step, fetched);
+                coveredFrom.remove(step);
+            }
+            long covered = Math.min(fetchedAt, fetched.lastTime() + step) - window.lookback;
+            coveredFrom.merge(step, Math.min(covered, fetched.firstTime()), Math::min);
+            updatedAt.put(step, fetchedAt);
+            observed.put(window, step);
+            return true;
+        }
+
+        // Intraday series are refreshed once their newest candle should have closed, daily ones hourly
+        private long refreshAfter(long step) {
+            return Math.max(CandleSeries.MINUTE, Math.min(step, CandleSeries.HOUR));
+        }
+
+        private CandleSeries parse(Map<String, Object> raw) {
+            if (raw == null) {
+                return null;
+            }
+            for (Map.Entry<String, Object> entry : raw.entrySet()) {
+                if (entry.getValue() instanceof List<?> rows && !rows.isEmpty()
+                        && rows.get(0) instanceof Map<?, ?> first) {
+                    String[] fieldNames = fieldNames(first);
+                    if (fieldNames == null) {
+                        continue;
+                    }
+                    CandleSeries candles = toSeries(rows, fieldNames);
+                    if (candles == null) {
+                        return null;
+                    }
+                    Map<String, Object> shape = new LinkedHashMap<>(raw);
+                    shape.remove(entry.getKey());
+                    template = shape;
+                    listKey = entry.getKey();
+                    names = fieldNames;
+                    return candles;
+                }
+            }
+            return null;
+        }
+
+        // Key names as the upstream spelled them: time, open, high, low, close, volume
+        private String[] fieldNames(Map<?, ?> row) {
+            String[] found = new String[6];
+            for (String key : TIME_KEYS) {
+                if (row.containsKey(key)) {
+                    found[0] = key;
+                    break;
+                }
+            }
+            for (int f = 0; f < VALUE_KEYS.length; f++) {
+                found[f + 1] = row.containsKey(VALUE_KEYS[f][1]) ? VALUE_KEYS[f][1] : VALUE_KEYS[f][0];
+            }
+            return found[0] != null && row.containsKey(found[4]) ? found : null;
+        }
+
+        private CandleSeries toSeries(List<?> rows, String[] fieldNames) {
+            int n = rows.size();
+            long[] times = new long[n];
+            double[][] values = new double[5][n];
+            Integer[] order = new Integer[n];
+            int count = 0;
+            for (Object row : rows) {
+                if (!(row instanceof Map<?, ?> map)) {
+                    continue;
+                }
+                Long t = toMillis(map.get(fieldNames[0]));
+                Double close = toDouble(map.get(fieldNames[4]));
+                if (t == null || close == null) {
+                    continue;
+                }
+                times[count] = t;
+                for (int f = 0; f < 5; f++) {
+                    Double value = toDouble(map.get(fieldNames[f + 1]));
+                    values[f][count] = value != null ? value : (f == 4 ? 0 : close);
+                }
+                order[count] = count;
+                count++;
+            }
+            if (count < 2) {
+                return null;
+            }
+
+            Integer[] sorted = Arrays.copyOf(order, count);
+            Arrays.sort(sorted, (a, b) -> Long.compare(times[a], times[b]));
+            long step = inferResolution(times, sorted);
+            if (step == 0) {
+                return null;
+            }
+            long offset = step < CandleSeries.DAY ? times[sorted[0]] : CandleSeries.defaultOffset(step);
+            CandleSeries candles = new CandleSeries(step, offset, maxPerSeries);
+            for (int i : sorted) {
+                candles.append(times[i], values[0][i], values[1][i], values[2][i], values[3][i], values[4][i]);
+            }
+            return candles;
+        }
+
+        // The median gap between candles, snapped to a known resolution; 0 if none is close
+        private long inferResolution(long[] times, Integer[] sorted) {
+            long[] gaps = new long[sorted.length - 1];
+            for (int i = 1; i < sorted.length; i++) {
+                gaps[i - 1] = times[sorted[i]] - times[sorted[i - 1]];
+            }
+            Arrays.sort(gaps);
+            long median = gaps[gaps.length / 2];
+            for (long step : RESOLUTIONS) {
+                if (median >= step * 2 / 3 && median <= step * 3 / 2) {
+                    return step;
+                }
+            }
+            return 0;
+        }
+
+        private Map<String, Object> toPayload(CandleSeries candles, long from, String timeframe) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            boolean daily = candles.getResolution() >= CandleSeries.DAY;
+            for (int i = candles.indexOf(from); i < candles.size(); i++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                Instant start = Instant.ofEpochMilli(candles.time(i));
+                row.put(names[0], daily ? LocalDate.ofInstant(start, ZoneOffset.UTC).toString() : start.toString());
+                row.put(names[1], candles.open(i));
+                row.put(names[2], candles.high(i));
+                row.put(names[3], candles.low(i));
+                row.put(names[4], candles.close(i));
+                row.put(names[5], candles.volume(i));
+                rows.add(row);
+            }
+            Map<String, Object> payload = new LinkedHashMap<>(template);
+            if (payload.containsKey("timeframe")) {
+                payload.put("timeframe", timeframe);
+            }
+            payload.put(listKey, rows);
+            return payload;
+        }
+    }
+
+    private static Long toMillis(Object value) {
+        if (value instanceof Number number) {
+            long raw = number.longValue();
+            // Unix seconds until the year 5138
+            return raw < 100_000_000_000L ? raw * 1000 : raw;
+        }
+        if (!(value instanceof String text) || text.isBlank()) {
+            return null;
+        }
+        String iso = text.trim().replace(' ', 'T');
+        try {
+            return OffsetDateTime.parse(iso).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDateTime.parse(iso).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDate.parse(iso).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
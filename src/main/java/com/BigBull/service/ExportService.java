@@ -0,0 +1,261 @@
+package com.BigBull.service;
+
+import com.BigBull.repository.HoldingQueryRepository;
+import com.BigBull.repository.TransactionQueryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Audit exports of transactions and holdings snapshots as CSV or
+ * newline-delimited JSON, optionally gzipped. Each row is written to the
+ * output as it comes off a forward-only cursor, without building an entity or
+ * DTO for it, so heap use stays flat however many rows are exported.
+ */
+@Service
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Same property names as TransactionDTO, so NDJSON lines match the JSON APIs
+    private static final Column[] TRANSACTION_COLUMNS = {
+            new Column("id", "id", Kind.LONG),
+            new Column("username", "username", Kind.STRING),
+            new Column("asset_id", "assetId", Kind.LONG),
+            new Column("symbol", "symbol", Kind.STRING),
+            new Column("type", "type", Kind.STRING),
+            new Column("units", "units", Kind.INT),
+            new Column("quantity", "quantity", Kind.DOUBLE),
+            new Column("price_per_unit", "price", Kind.DOUBLE),
+            new Column("total_amount", "totalAmount", Kind.DOUBLE),
+            new Column("transaction_date", "transactionDate", Kind.DATE_TIME)
+    };
+
+    private static final Column[] HOLDING_COLUMNS = {
+            new Column("username", "username", Kind.STRING),
+            new Column("symbol", "symbol", Kind.STRING),
+            new Column("quantity", "quantity", Kind.DOUBLE),
+            new Column("average_cost", "averageCost", Kind.DOUBLE),
+            new Column("realized_pnl", "realizedPnl", Kind.DOUBLE),
+            new Column("updated_at", "updatedAt", Kind.DATE_TIME)
+    };
+
+    @Autowired
+    private TransactionQueryRepository transactionQueryRepository;
+
+    @Autowired
+    private HoldingQueryRepository holdingQueryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", ".csv"),
+        NDJSON("application/x-ndjson", ".ndjson");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + name + ". Use csv or ndjson");
+            }
+        }
+
+        public String mediaType(boolean gzip) {
+            return gzip ? "application/gzip" : mediaType;
+        }
+
+        public String fileName(String name, boolean gzip) {
+            return name + extension + (gzip ? ".gz" : "");
+        }
+    }
+
+    /** Matching transactions, newest first; every filter is optional. */
+    @Transactional(readOnly = true)
+    public void exportTransactions(String username, String symbol, LocalDateTime from, LocalDateTime to,
+                                   Format format, boolean gzip, OutputStream out) throws IOException {
+        export(TRANSACTION_COLUMNS, format, gzip, out,
+                handler -> transactionQueryRepository.stream(username, symbol, from, to, handler));
+    }
+
+    /** Current holdings of one user, or of every user, with their cost basis and realized profit or loss. */
+    @Transactional(readOnly = true)
+    public void exportHoldings(String username, Format format, boolean gzip, OutputStream out) throws IOException {
+        export(HOLDING_COLUMNS, format, gzip, out, handler -> holdingQueryRepository.stream(username, handler));
+    }
+
+    private void export(Column[] columns, Format format, boolean gzip, OutputStream out,
+                        Consumer<RowCallbackHandler> query) throws IOException {
+        GZIPOutputStream zipped = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        OutputStream target = zipped != null ? zipped : out;
+
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            for (int i = 0; i < columns.length; i++) {
+                writer.write(i == 0 ? columns[i].name : "," + columns[i].name);
+            }
+            writer.write('\n');
+            query.accept(rs -> {
+                try {
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        columns[i].kind.csv(rs, columns[i].label, writer);
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } else {
+            // Not closed, which would close the response stream; one object per line, each ended by a newline
+            JsonGenerator generator = objectMapper.writer().withRootValueSeparator((String) null).createGenerator(target);
+            query.accept(rs -> {
+                generator.writeStartObject();
+                for (Column column : columns) {
+                    column.kind.json(rs, column.label, column.name, generator);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+            generator.flush();
+        }
+
+        if (zipped != null) {
+            zipped.finish();
+        }
+        out.flush();
+    }
+
+    // A result set column and the name it is exported under
+    private record Column(String label, String name, Kind kind) {
+    }
+
+    private enum Kind {
+        LONG {
+            @Override
+            String text(ResultSet rs, String label) throws SQLException {
+                long value = rs.getLong(label);
+                return rs.wasNull() ? null : Long.toString(value);
+            }
+
+            @Override
+            void json(ResultSet rs, String label, String name, JsonGenerator generator) throws SQLException {
+                long value = rs.getLong(label);
+                if (rs.wasNull()) {
+                    generator.writeNullProperty(name);
+                } else {
+                    generator.writeNumberProperty(name, value);
+                }
+            }
+        },
+        INT {
+            @Override
+            String text(ResultSet rs, String label) throws SQLException {
+                int value = rs.getInt(label);
+                return rs.wasNull() ? null : Integer.toString(value);
+            }
+
+            @Override
+            void json(ResultSet rs, String label, String name, JsonGenerator generator) throws SQLException {
+                int value = rs.getInt(label);
+                if (rs.wasNull()) {
+                    generator.writeNullProperty(name);
+                } else {
+                    generator.writeNumberProperty(name, value);
+                }
+            }
+        },
+        DOUBLE {
+            @Override
+            String text(ResultSet rs, String label) throws SQLException {
+                double value = rs.getDouble(label);
+                return rs.wasNull() ? null : Double.toString(value);
+            }
+
+            @Override
+            void json(ResultSet rs, String label, String name, JsonGenerator generator) throws SQLException {
+                double value = rs.getDouble(label);
+                if (rs.wasNull()) {
+                    generator.writeNullProperty(name);
+                } else {
+                    generator.writeNumberProperty(name, value);
+                }
+            }
+        },
+        STRING {
+            @Override
+            String text(ResultSet rs, String label) throws SQLException {
+                return rs.getString(label);
+            }
+
+            @Override
+            void csv(ResultSet rs, String label, Writer writer) throws SQLException, IOException {
+                String value = rs.getString(label);
+                if (value == null) {
+                    return;
+                }
+                if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                    writer.write(value);
+                } else {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                }
+            }
+        },
+        DATE_TIME {
+            @Override
+            String text(ResultSet rs, String label) throws SQLException {
+                LocalDateTime value = rs.getObject(label, LocalDateTime.class);
+                return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : null;
+            }
+        };
+
+        abstract String text(ResultSet rs, String label) throws SQLException;
+
+        void csv(ResultSet rs, String label, Writer writer) throws SQLException, IOException {
+            String value = text(rs, label);
+            if (value != null) {
+                writer.write(value);
+            }
+        }
+
+        void json(ResultSet rs, String label, String name, JsonGenerator generator) throws SQLException {
+            String value = text(rs, label);
+            if (value == null) {
+                generator.writeNullProperty(name);
+            } else {
+                generator.writeStringProperty(name, value);
+            }
+        }
+    }
+}
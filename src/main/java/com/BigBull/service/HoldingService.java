@@ -0,0 +1,87 @@
+package com.BigBull.service;
+
+import com.BigBull.entity.Asset;
+import com.BigBull.entity.Holding;
+import com.BigBull.entity.Transaction;
+import com.BigBull.repository.HoldingRepository;
+import com.BigBull.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class HoldingService {
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    public Holding getOrCreate(String username, Asset asset) {
+        return holdingRepository.findByUsernameAndAsset(username, asset)
+                .orElseGet(() -> newHolding(username, asset));
+    }
+
+    public void applyBuy(Holding holding, double units, double price) {
+        double currentQuantity = holding.getQuantity();
+        holding.setAverageCost(weightedAverageCost(currentQuantity, holding.getAverageCost(), units, price));
+        holding.setQuantity(currentQuantity + units);
+    }
+
+    /** Average cost per unit after buying {@code units} at {@code price} on top of an existing position. */
+    public static double weightedAverageCost(double quantity, double averageCost, double units, double price) {
+        return (quantity * averageCost + units * price) / (quantity + units);
+    }
+
+    public void applySell(Holding holding, double units, double price) {
+        if (holding.getQuantity() < units) {
+            throw new RuntimeException("Insufficient units. Required: " + units + ", Available: " + holding.getQuantity());
+        }
+        holding.setRealizedPnl(holding.getRealizedPnl() + units * (price - holding.getAverageCost()));
+        holding.setQuantity(holding.getQuantity() - units);
+    }
+
+    /**
+     * One-time migration for databases that predate the holdings table:
+     * replays the existing transaction history into per-user holdings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillFromTransactions() {
+        if (holdingRepository.count() > 0 || transactionRepository.count() == 0) {
+            return;
+        }
+
+        Map<String, Holding> holdings = new LinkedHashMap<>();
+        for (Transaction transaction : transactionRepository.findAll(Sort.by("transactionDate", "id"))) {
+            Asset asset = transaction.getAsset();
+            Holding holding = holdings.computeIfAbsent(transaction.getUsername() + "|" + asset.getId(),
+                    key -> newHolding(transaction.getUsername(), asset));
+            double units = transaction.getQuantity() != null ? transaction.getQuantity() : transaction.getUnits();
+
+            if ("BUY".equalsIgnoreCase(transaction.getType())) {
+                applyBuy(holding, units, transaction.getPricePerUnit());
+            } else if ("SELL".equalsIgnoreCase(transaction.getType())) {
+                applySell(holding, Math.min(units, holding.getQuantity()), transaction.getPricePerUnit());
+            }
+        }
+        holdingRepository.saveAll(holdings.values());
+    }
+
+    public Holding newHolding(String username, Asset asset) {
+        Holding holding = new Holding();
+        holding.setUsername(username);
+        holding.setAsset(asset);
+        holding.setQuantity(0.0);
+        holding.setAverageCost(0.0);
+        holding.setRealizedPnl(0.0);
+        return holding;
+    }
+}
@@ -0,0 +1,85 @@
+package com.BigBull.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs work in a fresh database transaction and re-runs it when a versioned
+ * row was changed underneath it, or a concurrent insert won a unique key (such
+ * as two first buys creating the same holding), backing off exponentially with jitter.
+ * Other integrity violations, such as NOT NULL or foreign keys, are rethrown as they are.
+ */
+@Component
+public class OptimisticRetry {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bigbull.trades.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${bigbull.trades.retry.initial-backoff-ms:5}")
+    private long initialBackoffMs;
+
+    @Value("${bigbull.trades.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T inTransaction(Supplier<T> work) {
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (e instanceof DataIntegrityViolationException violation && !isDuplicateKey(violation)) {
+                    throw violation;
+                }
+                if (attempt >= maxAttempts) {
+                    throw new RuntimeException("Concurrent update conflict, gave up after " + attempt + " attempts", e);
+                }
+                sleep(ThreadLocalRandom.current().nextLong(backoffMs / 2, backoffMs + 1));
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    // JDBC code reports a unique key clash as DuplicateKeyException; through JPA it arrives as a
+    // DataIntegrityViolationException caused by Hibernate's ConstraintViolationException
+    static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying", e);
+        }
+    }
+}
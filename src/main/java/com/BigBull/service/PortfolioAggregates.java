@@ -0,0 +1,323 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.AssetSummary;
+import com.BigBull.entity.Holding;
+import com.BigBull.repository.HoldingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user running portfolio totals (cost basis, market value, realized P&L),
+ * loaded once from the holdings table and then kept current: committed trades
+ * replace the positions they touched, and a price tick revalues only the users
+ * holding that symbol. Aggregates are reloaded after a TTL so trades committed
+ * by other server instances are eventually picked up.
+ */
+@Component
+public class PortfolioAggregates implements PriceBook.PriceListener {
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Value("${bigbull.portfolio.aggregate-cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${bigbull.portfolio.aggregate-ttl-ms:300000}")
+    private long ttlMs;
+
+    private Cache<String, UserPortfolio> portfolios;
+
+    // Users with an open position in each symbol, so a tick touches only them
+    private final ConcurrentHashMap<String, Set<UserPortfolio>> holdersBySymbol = new ConcurrentHashMap<>();
+
+    private final CopyOnWriteArrayList<PortfolioListener> listeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void init() {
+        portfolios = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, UserPortfolio>() {
+                    @Override
+                    public long expireAfterCreate(String key, UserPortfolio portfolio, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(ttlMs);
+                    }
+
+                    // Applying a trade must not push back the reload
+                    @Override
+                    public long expireAfterUpdate(String key, UserPortfolio portfolio, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, UserPortfolio portfolio, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String key, UserPortfolio portfolio, RemovalCause cause) -> {
+                    if (portfolio != null) {
+                        portfolio.unindexAll();
+                    }
+                })
+                .recordStats()
+                .build();
+        priceBook.addListener(this);
+    }
+
+    @PreDestroy
+    void stop() {
+        priceBook.removeListener(this);
+    }
+
+    /**
+     * Returns the user's open positions and totals, marked to the latest
+     * prices. Only the held symbols are priced, and those are normally served
+     * from the price book or the quote cache.
+     */
+    public Valuation value(String username) {
+        UserPortfolio portfolio = portfolios.get(username, this::load);
+        Map<String, Double> prices = quoteService.getPrices(portfolio.typesBySymbol());
+        portfolio.mark(prices);
+        return portfolio.valuation();
+    }
+
+    /**
+     * Returns the user's positions at their last marks without pricing
+     * anything, unless the aggregate has to be loaded first.
+     */
+    public Valuation current(String username) {
+        UserPortfolio portfolio = portfolios.getIfPresent(username);
+        return portfolio != null ? portfolio.valuation() : value(username);
+    }
+
+    /** Listeners are told after the aggregates have absorbed a tick or a trade. */
+    public void addListener(PortfolioListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PortfolioListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queues the saved state of {@code holdings} to be folded into the user's
+     * aggregate once the current database transaction commits. Must be called
+     * inside that transaction; a rolled back attempt leaves the aggregate untouched.
+     */
+    public void applyAfterCommit(String username, Collection<Holding> holdings) {
+        List<Position> updates = new ArrayList<>(holdings.size());
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Holding holding : holdings) {
+            updates.add(new Position(holding));
+            symbols.add(holding.getAsset().getSymbol());
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Users not loaded yet pick the new rows up on their first read
+                portfolios.asMap().computeIfPresent(username, (key, portfolio) -> {
+                    portfolio.apply(updates);
+                    return portfolio;
+                });
+                for (PortfolioListener listener : listeners) {
+                    try {
+                        listener.onTrade(username, symbols);
+                    } catch (RuntimeException e) {
+                        System.err.println("Portfolio listener failed for " + username + ": " + e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onPrice(String symbol, double price) {
+        Set<UserPortfolio> holders = holdersBySymbol.get(symbol);
+        if (holders != null) {
+            for (UserPortfolio portfolio : holders) {
+                portfolio.mark(symbol, price);
+            }
+        }
+        for (PortfolioListener listener : listeners) {
+            listener.onPrice(symbol, price);
+        }
+    }
+
+    private UserPortfolio load(String username) {
+        UserPortfolio portfolio = new UserPortfolio();
+        List<Position> positions = new ArrayList<>();
+        for (Holding holding : holdingRepository.findAllByUsernameWithAsset(username)) {
+            positions.add(new Position(holding));
+        }
+        portfolio.apply(positions);
+        return portfolio;
+    }
+
+    public interface PortfolioListener {
+        /** A symbol was repriced; called on the price streaming thread, so must not block. */
+        void onPrice(String symbol, double price);
+
+        /** A trade by {@code username} touching {@code symbols} has committed. */
+        void onTrade(String username, Set<String> symbols);
+    }
+
+    /** A point-in-time copy of one user's totals and open positions. */
+    public static final class Valuation {
+        public final double marketValue;
+        public final double totalCost;
+        public final double realizedGain;
+        public final List<AssetSummary> assets;
+
+        Valuation(double marketValue, double totalCost, double realizedGain, List<AssetSummary> assets) {
+            this.marketValue = marketValue;
+            this.totalCost = totalCost;
+            this.realizedGain = realizedGain;
+            this.assets = assets;
+        }
+    }
+
+    private static final class Position {
+        final Long assetId;
+        final String symbol;
+        final String name;
+        final String type;
+        final double quantity;
+        final double averageCost;
+        final double realizedPnl;
+        final long version;
+
+        // Last mark; 0 until the symbol has been priced
+        double price;
+
+        Position(Holding holding) {
+            this.assetId = holding.getAsset().getId();
+            this.symbol = holding.getAsset().getSymbol();
+            this.name = holding.getAsset().getName();
+            this.type = holding.getAsset().getType();
+            this.quantity = holding.getQuantity();
+            this.averageCost = holding.getAverageCost();
+            this.realizedPnl = holding.getRealizedPnl();
+            this.version = holding.getVersion() != null ? holding.getVersion() : 0;
+        }
+    }
+
+    private final class UserPortfolio {
+        private final Map<Long, Position> positions = new LinkedHashMap<>();
+        private double totalCost;
+        private double marketValue;
+        private double realizedGain;
+
+        synchronized void apply(List<Position> updates) {
+            for (Position update : updates) {
+                Position current = positions.get(update.assetId);
+
+                // A reload may already have read a newer row than this commit wrote
+                if (current != null && current.version > update.version) {
+                    continue;
+                }
+                if (current != null) {
+                    totalCost -= current.quantity * current.averageCost;
+                    marketValue -= current.quantity * current.price;
+                    realizedGain -= current.realizedPnl;
+                    update.price = current.price;
+                }
+                positions.put(update.assetId, update);
+                totalCost += update.quantity * update.averageCost;
+                marketValue += update.quantity * update.price;
+                realizedGain += update.realizedPnl;
+
+                if (update.quantity > 0) {
+                    index(update.symbol);
+                } else {
+                    unindex(update.symbol);
+                }
+            }
+        }
+
+        synchronized void mark(String symbol, double price) {
+            for (Position position : positions.values()) {
+                if (position.symbol.equals(symbol)) {
+                    marketValue += position.quantity * (price - position.price);
+                    position.price = price;
+                }
+            }
+        }
+
+        synchronized void mark(Map<String, Double> prices) {
+            for (Position position : positions.values()) {
+                Double price = prices.get(position.symbol);
+                if (price != null) {
+                    marketValue += position.quantity * (price - position.price);
+                    position.price = price;
+                }
+            }
+        }
+
+        synchronized Map<String, String> typesBySymbol() {
+            Map<String, String> types = new LinkedHashMap<>();
+            for (Position position : positions.values()) {
+                if (position.quantity > 0) {
+                    types.put(position.symbol, position.type);
+                }
+            }
+            return types;
+        }
+
+        synchronized Valuation valuation() {
+            List<AssetSummary> assets = new ArrayList<>();
+            for (Position position : positions.values()) {
+                if (position.quantity > 0) {
+                    assets.add(AssetSummary.of(position.assetId, position.symbol, position.name, position.type,
+                            position.quantity, position.averageCost, position.price));
+                }
+            }
+            return new Valuation(marketValue, totalCost, realizedGain, assets);
+        }
+
+        synchronized void unindexAll() {
+            for (Position position : positions.values()) {
+                unindex(position.symbol);
+            }
+        }
+
+        private void index(String symbol) {
+            holdersBySymbol.compute(symbol, (k, holders) -> {
+                Set<UserPortfolio> set = holders != null ? holders : ConcurrentHashMap.newKeySet();
+                set.add(this);
+                return set;
+            });
+        }
+
+        private void unindex(String symbol) {
+            holdersBySymbol.computeIfPresent(symbol, (k, holders) -> {
+                holders.remove(this);
+                return holders.isEmpty() ? null : holders;
+            });
+        }
+    }
+}
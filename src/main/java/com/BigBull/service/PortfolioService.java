@@ -1,15 +1,15 @@
 package com.BigBull.service;
 
-import com.BigBull.dto.AssetSummary;
+import com.BigBull.dto.AssetDTO;
 import com.BigBull.dto.PortfolioSummary;
-import com.BigBull.entity.Asset;
 import com.BigBull.entity.Wallet;
 import com.BigBull.repository.AssetRepository;
+import com.BigBull.repository.HoldingRepository;
 import com.BigBull.repository.WalletRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,7 +23,10 @@ public class PortfolioService {
     private AssetRepository assetRepository;
 
     @Autowired
-    private AssetService assetService;
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
 
     public PortfolioSummary getPortfolioSummary(String username) {
         // Get wallet
@@ -33,24 +36,12 @@ public class PortfolioService {
         }
         Wallet wallet = walletOpt.get();
 
-        // Get all assets with quantity > 0
-        List<Asset> assets = assetRepository.findAll();
-        List<AssetSummary> assetSummaries = new ArrayList<>();
-        double portfolioValue = 0;
-        double totalCostValue = 0;
-
-        for (Asset asset : assets) {
-            if (asset.getQuantity() != null && asset.getQuantity() > 0) {
-                AssetSummary summary = assetService.getAssetSummary(asset);
-                assetSummaries.add(summary);
-                portfolioValue += summary.getTotalValue();
-                totalCostValue += summary.getTotalCostValue();
-            }
-        }
+        // Read the running aggregates for this user, marked to the latest prices
+        PortfolioAggregates.Valuation valuation = portfolioAggregates.value(username);
 
         // Calculate total gain
-        double totalGain = portfolioValue - totalCostValue;
-        double gainPercentage = (totalCostValue > 0) ? (totalGain / totalCostValue) * 100 : 0;
+        double totalGain = valuation.marketValue - valuation.totalCost;
+        double gainPercentage = (valuation.totalCost > 0) ? (totalGain / valuation.totalCost) * 100 : 0;
 
         // Create portfolio summary
         return new PortfolioSummary(
@@ -58,14 +49,19 @@ public class PortfolioService {
                 wallet.getBalance(),
                 wallet.getTotalInvested(),
                 wallet.getTotalWithdrawn(),
-                portfolioValue,
+                valuation.marketValue,
                 totalGain,
                 gainPercentage,
-                assetSummaries
+                valuation.realizedGain,
+                valuation.assets
         );
     }
 
-    public List<Asset> getPortfolioList() {
-        return assetRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<AssetDTO> getPortfolioList(String username) {
+        if (username == null) {
+            return assetRepository.findAllViews();
+        }
+        return holdingRepository.findActiveAssetViewsByUsername(username);
     }
 }
@@ -0,0 +1,296 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.AssetSummary;
+import com.BigBull.dto.PortfolioDelta;
+import com.BigBull.dto.PortfolioSummary;
+import com.BigBull.entity.Wallet;
+import com.BigBull.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes live portfolio valuations to Server-Sent Events subscribers. Each
+ * subscriber first gets a full {@link PortfolioSummary}, then a
+ * {@link PortfolioDelta} whenever one of its held symbols is repriced or the
+ * user trades. A tick reaches only the subscribers holding that symbol, and
+ * bursts of ticks for one subscriber are coalesced into a single event.
+ */
+@Service
+public class PortfolioStreamService implements PortfolioAggregates.PortfolioListener {
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Value("${bigbull.portfolio.stream-timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${bigbull.portfolio.stream-threads:4}")
+    private int threads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ConcurrentHashMap<String, Set<Subscription>> subscribersBySymbol = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Set<Subscription>> subscribersByUser = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("portfolio-stream-", 0).factory());
+        } else {
+            ThreadFactory factory = Thread.ofPlatform().name("portfolio-stream-", 0).daemon(true).factory();
+            executor = Executors.newFixedThreadPool(threads, factory);
+        }
+        portfolioAggregates.addListener(this);
+    }
+
+    // Open streams never finish on their own, so end them before graceful shutdown waits on them
+    @EventListener(ContextClosedEvent.class)
+    void closeStreams() {
+        for (Set<Subscription> subscriptions : subscribersByUser.values()) {
+            for (Subscription subscription : subscriptions) {
+                subscription.emitter.complete();
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        portfolioAggregates.removeListener(this);
+        executor.shutdown();
+    }
+
+    public SseEmitter subscribe(String username) {
+        if (walletRepository.findByUsername(username).isEmpty()) {
+            throw new RuntimeException("Wallet not found for username: " + username);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(username, emitter);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+
+        add(subscribersByUser, username, subscription);
+        subscription.schedule();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        int count = 0;
+        for (Set<Subscription> subscriptions : subscribersByUser.values()) {
+            count += subscriptions.size();
+        }
+        return count;
+    }
+
+    @Override
+    public void onPrice(String symbol, double price) {
+        Set<Subscription> subscriptions = subscribersBySymbol.get(symbol);
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                subscription.changed.add(symbol);
+                subscription.schedule();
+            }
+        }
+    }
+
+    @Override
+    public void onTrade(String username, Set<String> symbols) {
+        Set<Subscription> subscriptions = subscribersByUser.get(username);
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                subscription.changed.addAll(symbols);
+                subscription.traded.set(true);
+                subscription.schedule();
+            }
+        }
+    }
+
+    private static void add(ConcurrentHashMap<String, Set<Subscription>> index, String key, Subscription subscription) {
+        index.compute(key, (k, subscriptions) -> {
+            Set<Subscription> set = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+    }
+
+    private static void remove(ConcurrentHashMap<String, Set<Subscription>> index, String key, Subscription subscription) {
+        index.computeIfPresent(key, (k, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    /**
+     * One open stream. Events are built and sent by at most one thread at a
+     * time, so a subscriber always sees them in order.
+     */
+    private final class Subscription implements Runnable {
+        final String username;
+        final SseEmitter emitter;
+        final Set<String> changed = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean traded = new AtomicBoolean();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // Touched only by the thread holding the schedule
+        private boolean summarySent;
+        // Guards symbols and closed against the emitter callbacks closing the subscription mid-reindex
+        private final ReentrantLock lock = new ReentrantLock();
+        private Set<String> symbols = new HashSet<>();
+        private volatile boolean closed;
+
+        Subscription(String username, SseEmitter emitter) {
+            this.username = username;
+            this.emitter = emitter;
+        }
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!closed && !summarySent) {
+                    sendSummary();
+                } else if (!closed && (!changed.isEmpty() || traded.get())) {
+                    sendDelta();
+                }
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+                close();
+            }
+            scheduled.set(false);
+
+            // A change recorded between the send and clearing the flag would otherwise wait for the next one
+            if (!changed.isEmpty() || traded.get()) {
+                schedule();
+            }
+        }
+
+        private void sendSummary() throws IOException {
+            changed.clear();
+            traded.set(false);
+            PortfolioSummary summary = portfolioService.getPortfolioSummary(username);
+            reindex(summary.getAssets());
+            summarySent = true;
+            emitter.send(SseEmitter.event().name("summary").data(summary));
+        }
+
+        private void sendDelta() throws IOException {
+            Set<String> moved = new HashSet<>(changed);
+            changed.removeAll(moved);
+            boolean afterTrade = traded.getAndSet(false);
+
+            // A trade may have opened a position that has not been priced yet
+            PortfolioAggregates.Valuation valuation = afterTrade
+                    ? portfolioAggregates.value(username)
+                    : portfolioAggregates.current(username);
+
+            PortfolioDelta delta = new PortfolioDelta();
+            delta.setUsername(username);
+            if (afterTrade) {
+                Wallet wallet = walletRepository.findByUsername(username)
+                        .orElseThrow(() -> new RuntimeException("Wallet not found for username: " + username));
+                delta.setCurrentBalance(wallet.getBalance());
+                delta.setTotalInvested(wallet.getTotalInvested());
+                delta.setTotalWithdrawn(wallet.getTotalWithdrawn());
+            }
+            double totalGain = valuation.marketValue - valuation.totalCost;
+            delta.setPortfolioValue(valuation.marketValue);
+            delta.setTotalGain(totalGain);
+            delta.setGainPercentage((valuation.totalCost > 0) ? (totalGain / valuation.totalCost) * 100 : 0);
+            delta.setRealizedGain(valuation.realizedGain);
+
+            List<AssetSummary> assets = new ArrayList<>();
+            Set<String> open = new HashSet<>();
+            for (AssetSummary asset : valuation.assets) {
+                open.add(asset.getSymbol());
+                if (moved.contains(asset.getSymbol())) {
+                    assets.add(asset);
+                }
+            }
+            List<String> closedSymbols = new ArrayList<>();
+            for (String symbol : moved) {
+                if (!open.contains(symbol)) {
+                    closedSymbols.add(symbol);
+                }
+            }
+            delta.setAssets(assets);
+            delta.setClosed(closedSymbols.isEmpty() ? null : closedSymbols);
+            reindex(valuation.assets);
+            emitter.send(SseEmitter.event().name("delta").data(delta));
+        }
+
+        // Keeps this subscription listed under exactly the symbols it holds
+        private void reindex(List<AssetSummary> assets) {
+            Set<String> held = new HashSet<>();
+            for (AssetSummary asset : assets) {
+                held.add(asset.getSymbol());
+            }
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                for (String symbol : held) {
+                    if (!symbols.contains(symbol)) {
+                        add(subscribersBySymbol, symbol, this);
+                    }
+                }
+                for (String symbol : symbols) {
+                    if (!held.contains(symbol)) {
+                        remove(subscribersBySymbol, symbol, this);
+                    }
+                }
+                symbols = held;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                remove(subscribersByUser, username, this);
+                for (String symbol : symbols) {
+                    remove(subscribersBySymbol, symbol, this);
+                }
+                symbols = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
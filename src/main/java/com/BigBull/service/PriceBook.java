@@ -0,0 +1,77 @@
+package com.BigBull.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory last-price book fed by the streaming client. Each symbol owns a
+ * mutable slot so steady-state ticks update primitives in place. Listeners
+ * hear about a symbol only when its price actually moves.
+ */
+@Component
+public class PriceBook {
+
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    private final CopyOnWriteArrayList<PriceListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void update(String symbol, double price) {
+        if (symbol == null || !(price > 0)) {
+            return;
+        }
+        double previous = slots.computeIfAbsent(symbol, k -> new Slot()).set(price, System.nanoTime());
+        if (previous != price) {
+            for (PriceListener listener : listeners) {
+                try {
+                    listener.onPrice(symbol, price);
+                } catch (RuntimeException e) {
+                    System.err.println("Price listener failed for " + symbol + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Called on the streaming thread, so listeners must not block. */
+    public void addListener(PriceListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(PriceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the streamed price if it is younger than {@code maxAgeNanos},
+     * otherwise {@link Double#NaN}.
+     */
+    public double getPrice(String symbol, long maxAgeNanos) {
+        Slot slot = slots.get(symbol);
+        if (slot == null) {
+            return Double.NaN;
+        }
+        double price = slot.price;
+        return System.nanoTime() - slot.updatedAt <= maxAgeNanos ? price : Double.NaN;
+    }
+
+    public void remove(String symbol) {
+        slots.remove(symbol);
+    }
+
+    private static final class Slot {
+        private volatile long updatedAt;
+        private volatile double price;
+
+        double set(double price, long updatedAt) {
+            double previous = this.price;
+            this.price = price;
+            this.updatedAt = updatedAt;
+            return previous;
+        }
+    }
+
+    public interface PriceListener {
+        void onPrice(String symbol, double price);
+    }
+}
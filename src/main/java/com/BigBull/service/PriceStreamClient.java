@@ -0,0 +1,234 @@
+package com.BigBull.service;
+
+import com.BigBull.repository.AssetRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Long-lived WebSocket client for the Python /ws/stream endpoint. Keeps every
+ * symbol in the assets table subscribed and writes ticks into the {@link PriceBook}.
+ */
+@Service
+public class PriceStreamClient implements WebSocket.Listener {
+
+    private static final long MAX_RECONNECT_DELAY_MS = 60_000;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bigbull.stream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bigbull.stream.url:ws://localhost:5000/ws/stream}")
+    private String streamUrl;
+
+    @Value("${bigbull.stream.reconnect-delay-ms:1000}")
+    private long reconnectDelayMs;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "price-stream-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private final StringBuilder partialMessage = new StringBuilder();
+
+    private volatile WebSocket webSocket;
+    private volatile boolean stopped;
+    private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+    private volatile long currentDelayMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            currentDelayMs = reconnectDelayMs;
+            connect();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        scheduler.shutdownNow();
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    public void subscribe(String symbol) {
+        if (subscribed.add(symbol)) {
+            send("subscribe", List.of(symbol));
+        }
+    }
+
+    public void unsubscribe(String symbol) {
+        if (subscribed.remove(symbol)) {
+            priceBook.remove(symbol);
+            send("unsubscribe", List.of(symbol));
+        }
+    }
+
+    private void connect() {
+        if (stopped) {
+            return;
+        }
+        httpClient.newWebSocketBuilder()
+                .buildAsync(URI.create(streamUrl), this)
+                .whenComplete((ws, error) -> {
+                    if (error != null) {
+                        System.err.println("Price stream connect failed: " + error.getMessage());
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private void scheduleReconnect() {
+        webSocket = null;
+        if (stopped) {
+            return;
+        }
+        long delay = currentDelayMs;
+        currentDelayMs = Math.min(currentDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+        scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onOpen(WebSocket ws) {
+        webSocket = ws;
+        currentDelayMs = reconnectDelayMs;
+        sendLock.lock();
+        try {
+            lastSend = CompletableFuture.completedFuture(null);
+        } finally {
+            sendLock.unlock();
+        }
+
+        // Resubscribe the whole catalog on every (re)connect; without it, drop this connection and try another
+        try {
+            List<String> symbols = assetRepository.findAllSymbols();
+            subscribed.clear();
+            subscribed.addAll(symbols);
+            send("subscribe", subscribed);
+        } catch (RuntimeException e) {
+            System.err.println("Price stream could not load the symbols to subscribe, reconnecting: " + e.getMessage());
+            scheduleReconnect();
+            ws.abort();
+        } finally {
+            ws.request(1);
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+        partialMessage.append(data);
+        if (last) {
+            String message = partialMessage.toString();
+            partialMessage.setLength(0);
+            try {
+                applyTicks(objectMapper.readValue(message, Object.class));
+            } catch (Exception e) {
+                System.err.println("Ignoring malformed price stream message: " + e.getMessage());
+            }
+        }
+        ws.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+        // A connection already given up on has its reconnect scheduled
+        if (ws == webSocket) {
+            scheduleReconnect();
+        }
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket ws, Throwable error) {
+        System.err.println("Price stream error: " + error.getMessage());
+        if (ws == webSocket) {
+            scheduleReconnect();
+        }
+    }
+
+    private void applyTicks(Object payload) {
+        if (payload instanceof List<?> entries) {
+            for (Object entry : entries) {
+                applyTicks(entry);
+            }
+        } else if (payload instanceof Map<?, ?> map) {
+            if (map.get("symbol") != null) {
+                Double price = PythonQuoteClient.extractPrice(map);
+                if (price != null) {
+                    priceBook.update(map.get("symbol").toString(), price);
+                }
+            } else if (map.containsKey("data")) {
+                applyTicks(map.get("data"));
+            } else {
+                // Snapshot keyed by symbol
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    Double price = PythonQuoteClient.extractPrice(entry.getValue());
+                    if (price != null) {
+                        priceBook.update(entry.getKey().toString(), price);
+                    }
+                }
+            }
+        }
+    }
+
+    private void send(String action, Collection<String> symbols) {
+        WebSocket ws = webSocket;
+        if (ws == null || symbols.isEmpty()) {
+            return;
+        }
+        Map<String, Object> message = new HashMap<>();
+        message.put("action", action);
+        message.put("symbols", new ArrayList<>(symbols));
+        String text = objectMapper.writeValueAsString(message);
+
+        // WebSocket allows only one outstanding send, so chain them
+        sendLock.lock();
+        try {
+            lastSend = lastSend.handle((result, error) -> null)
+                    .thenCompose(ignored -> ws.sendText(text, true));
+        } finally {
+            sendLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.BigBull.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches live prices from the Python service, either one symbol at a time or
+ * as a batch resolved in roughly one round trip.
+ */
+@Service
+public class PythonQuoteClient {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("quoteExecutor")
+    private ExecutorService quoteExecutor;
+
+    @Value("${python.api.url:http://localhost:5000/api}")
+    private String pythonApiUrl;
+
+    @Value("${bigbull.quotes.batch-timeout-ms:3000}")
+    private long batchTimeoutMs;
+
+    public double fetchPrice(String symbol, String assetType) {
+        String endpoint = isCrypto(assetType)
+                ? "/crypto/quote/" + symbol
+                : "/stock/quote/" + symbol;
+
+        Map<String, Object> response = restTemplate.getForObject(pythonApiUrl + endpoint, Map.class);
+        Double price = extractPrice(response);
+        if (price == null) {
+            throw new RuntimeException("Failed to fetch price for: " + symbol);
+        }
+        return price;
+    }
+
+    /**
+     * Resolves prices for many symbols at once. Stocks go through a single
+     * POST /stock/multiple call, crypto and any stock the batch call missed are
+     * fetched concurrently. Symbols that cannot be priced before the deadline
+     * are left out of the result.
+     */
+    public Map<String, Double> fetchPrices(Map<String, String> typesBySymbol) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+
+        List<String> stocks = new ArrayList<>();
+        Map<String, CompletableFuture<Double>> pending = new HashMap<>();
+        for (Map.Entry<String, String> entry : typesBySymbol.entrySet()) {
+            if (isCrypto(entry.getValue())) {
+                pending.put(entry.getKey(), fetchPriceAsync(entry.getKey(), entry.getValue()));
+            } else {
+                stocks.add(entry.getKey());
+            }
+        }
+
+        Map<String, Double> prices = new HashMap<>();
+        if (!stocks.isEmpty()) {
+            CompletableFuture<Map<String, Double>> batch = CompletableFuture.supplyAsync(
+                    () -> fetchStockBatch(stocks), quoteExecutor);
+            Map<String, Double> batchPrices = await(batch, deadline);
+            if (batchPrices != null) {
+                prices.putAll(batchPrices);
+            }
+            for (String symbol : stocks) {
+                if (!prices.containsKey(symbol)) {
+                    pending.put(symbol, fetchPriceAsync(symbol, typesBySymbol.get(symbol)));
+                }
+            }
+        }
+
+        for (Map.Entry<String, CompletableFuture<Double>> entry : pending.entrySet()) {
+            Double price = await(entry.getValue(), deadline);
+            if (price != null) {
+                prices.put(entry.getKey(), price);
+            }
+        }
+        return prices;
+    }
+
+    private CompletableFuture<Double> fetchPriceAsync(String symbol, String assetType) {
+        return CompletableFuture.supplyAsync(() -> fetchPrice(symbol, assetType), quoteExecutor);
+    }
+
+    private Map<String, Double> fetchStockBatch(List<String> symbols) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("symbols", symbols);
+        body.put("timeframe", "1D");
+
+        Map<String, Object> response = restTemplate.postForObject(pythonApiUrl + "/stock/multiple", body, Map.class);
+        Map<String, Double> prices = new HashMap<>();
+        if (response == null) {
+            return prices;
+        }
+
+        // The batch payload is either keyed by symbol or wrapped in "data"/"results"
+        Object payload = response.containsKey("data") ? response.get("data")
+                : response.containsKey("results") ? response.get("results")
+                : response;
+
+        if (payload instanceof Map<?, ?> bySymbol) {
+            for (String symbol : symbols) {
+                Double price = extractPrice(bySymbol.get(symbol));
+                if (price != null) {
+                    prices.put(symbol, price);
+                }
+            }
+        } else if (payload instanceof List<?> entries) {
+            for (Object entry : entries) {
+                if (entry instanceof Map<?, ?> map && map.get("symbol") != null) {
+                    Double price = extractPrice(map);
+                    if (price != null) {
+                        prices.put(map.get("symbol").toString(), price);
+                    }
+                }
+            }
+        }
+        return prices;
+    }
+
+    static Double extractPrice(Object source) {
+        if (!(source instanceof Map<?, ?> data)) {
+            return null;
+        }
+        for (String key : new String[]{"price", "current_price", "currentPrice"}) {
+            Double price = toDouble(data.get(key));
+            if (price != null) {
+                return price;
+            }
+        }
+        // Fall back to the latest close when the entry carries history
+        if (data.get("data") instanceof List<?> candles && !candles.isEmpty()
+                && candles.get(candles.size() - 1) instanceof Map<?, ?> last) {
+            Double close = toDouble(last.get("close"));
+            return close != null ? close : toDouble(last.get("Close"));
+        }
+        return null;
+    }
+
+    private static Double toDouble(Object priceObj) {
+        if (priceObj instanceof Number) {
+            return ((Number) priceObj).doubleValue();
+        } else if (priceObj instanceof String) {
+            try {
+                return Double.parseDouble((String) priceObj);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private <T> T await(CompletableFuture<T> future, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            System.err.println("Error fetching batched price: " + e.getMessage());
+            future.cancel(true);
+            return null;
+        }
+    }
+
+    private boolean isCrypto(String assetType) {
+        return assetType != null && assetType.equalsIgnoreCase("CRYPTO");
+    }
+}
@@ -0,0 +1,284 @@
+package com.BigBull.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single entry point for live prices. Streamed prices from the {@link PriceBook}
+ * win when fresh; otherwise quotes are cached per asset type with their own TTL,
+ * and concurrent misses for the same symbol share one upstream call.
+ *
+ * <p>Lookups are counted by where the price came from (stream, cache or
+ * upstream) as {@code bigbull.quotes.lookups}, next to the cache's own stats.
+ */
+@Service
+public class QuoteService implements MeterBinder {
+
+    @Autowired
+    private PythonQuoteClient pythonQuoteClient;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Value("${bigbull.quotes.stock-ttl-ms:15000}")
+    private long stockTtlMs;
+
+    @Value("${bigbull.quotes.crypto-ttl-ms:5000}")
+    private long cryptoTtlMs;
+
+    @Value("${bigbull.quotes.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${bigbull.quotes.batch-timeout-ms:3000}")
+    private long batchTimeoutMs;
+
+    private Cache<String, CachedQuote> cache;
+
+    private final ConcurrentHashMap<String, CompletableFuture<CachedQuote>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder streamLookups = new LongAdder();
+    private final LongAdder cacheLookups = new LongAdder();
+    private final LongAdder upstreamLookups = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, CachedQuote>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedQuote quote, long currentTime) {
+                        return ttlNanos(key);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedQuote quote, long currentTime, long currentDuration) {
+                        return ttlNanos(key);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedQuote quote, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "quotes");
+        lookupCounter(registry, "stream", streamLookups);
+        lookupCounter(registry, "cache", cacheLookups);
+        lookupCounter(registry, "upstream", upstreamLookups);
+    }
+
+    private static void lookupCounter(MeterRegistry registry, String source, LongAdder count) {
+        FunctionCounter.builder("bigbull.quotes.lookups", count, LongAdder::sum)
+                .description("Price lookups by where the price was served from")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    public double getPrice(String symbol, String assetType) {
+        return getPrice(symbol, assetType, null);
+    }
+
+    /**
+     * Returns a price no older than {@code maxStaleness}, or within the asset
+     * type's TTL when no bound is given.
+     */
+    public double getPrice(String symbol, String assetType, Duration maxStaleness) {
+        String key = key(symbol, assetType);
+        double streamed = priceBook.getPrice(symbol, maxStaleness != null ? maxStaleness.toNanos() : ttlNanos(key));
+        if (!Double.isNaN(streamed)) {
+            streamLookups.increment();
+            return streamed;
+        }
+
+        CachedQuote cached = cache.getIfPresent(key);
+        if (cached != null && cached.isFresh(maxStaleness)) {
+            cacheLookups.increment();
+            return cached.price;
+        }
+        return load(key, symbol, assetType, maxStaleness).price;
+    }
+
+    /**
+     * Batched variant used for portfolio valuation. Cached symbols are served
+     * locally, the rest are fetched in one batched upstream pass.
+     */
+    public Map<String, Double> getPrices(Map<String, String> typesBySymbol) {
+        return getPrices(typesBySymbol, null);
+    }
+
+    /**
+     * Batched variant bounded by {@code maxStaleness}, used when pricing many
+     * orders at once. Symbols that cannot be priced are left out of the result.
+     */
+    public Map<String, Double> getPrices(Map<String, String> typesBySymbol, Duration maxStaleness) {
+        Map<String, Double> prices = new HashMap<>();
+        Map<String, String> misses = new LinkedHashMap<>();
+        Map<String, CompletableFuture<CachedQuote>> owned = new HashMap<>();
+        Map<String, CompletableFuture<CachedQuote>> joined = new HashMap<>();
+
+        for (Map.Entry<String, String> entry : typesBySymbol.entrySet()) {
+            String symbol = entry.getKey();
+            String key = key(symbol, entry.getValue());
+            double streamed = priceBook.getPrice(symbol, maxStaleness != null ? maxStaleness.toNanos() : ttlNanos(key));
+            if (!Double.isNaN(streamed)) {
+                streamLookups.increment();
+                prices.put(symbol, streamed);
+                continue;
+            }
+
+            CachedQuote cached = cache.getIfPresent(key);
+            if (cached != null && cached.isFresh(maxStaleness)) {
+                cacheLookups.increment();
+                prices.put(symbol, cached.price);
+                continue;
+            }
+
+            CompletableFuture<CachedQuote> created = new CompletableFuture<>();
+            CompletableFuture<CachedQuote> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                upstreamLookups.increment();
+                joined.put(symbol, existing);
+                continue;
+            }
+
+            // A load that finished between the cache miss and putIfAbsent has already refreshed the cache
+            CachedQuote loaded = cache.getIfPresent(key);
+            if (loaded != null && loaded.isFresh(maxStaleness)) {
+                created.complete(loaded);
+                inFlight.remove(key, created);
+                cacheLookups.increment();
+                prices.put(symbol, loaded.price);
+                continue;
+            }
+            upstreamLookups.increment();
+            owned.put(symbol, created);
+            misses.put(symbol, entry.getValue());
+        }
+
+        if (!misses.isEmpty()) {
+            try {
+                Map<String, Double> fetched = pythonQuoteClient.fetchPrices(misses);
+                long now = System.nanoTime();
+                for (Map.Entry<String, String> entry : misses.entrySet()) {
+                    Double price = fetched.get(entry.getKey());
+                    if (price != null) {
+                        CachedQuote quote = new CachedQuote(price, now);
+                        cache.put(key(entry.getKey(), entry.getValue()), quote);
+                        owned.get(entry.getKey()).complete(quote);
+                        prices.put(entry.getKey(), price);
+                    }
+                }
+            } finally {
+                for (Map.Entry<String, CompletableFuture<CachedQuote>> entry : owned.entrySet()) {
+                    entry.getValue().completeExceptionally(
+                            new RuntimeException("Failed to fetch price for: " + entry.getKey()));
+                    inFlight.remove(key(entry.getKey(), misses.get(entry.getKey())), entry.getValue());
+                }
+            }
+        }
+
+        for (Map.Entry<String, CompletableFuture<CachedQuote>> entry : joined.entrySet()) {
+            try {
+                prices.put(entry.getKey(), entry.getValue().get(batchTimeoutMs, TimeUnit.MILLISECONDS).price);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Error fetching price for " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        return prices;
+    }
+
+    private CachedQuote load(String key, String symbol, String assetType, Duration maxStaleness) {
+        CompletableFuture<CachedQuote> created = new CompletableFuture<>();
+        CompletableFuture<CachedQuote> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            upstreamLookups.increment();
+            return join(existing);
+        }
+
+        try {
+            // A load that finished between the cache miss and putIfAbsent has already refreshed the cache
+            CachedQuote loaded = cache.getIfPresent(key);
+            if (loaded != null && loaded.isFresh(maxStaleness)) {
+                cacheLookups.increment();
+                created.complete(loaded);
+                return loaded;
+            }
+            upstreamLookups.increment();
+            CachedQuote quote = new CachedQuote(pythonQuoteClient.fetchPrice(symbol, assetType), System.nanoTime());
+            cache.put(key, quote);
+            created.complete(quote);
+            return quote;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private CachedQuote join(CompletableFuture<CachedQuote> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for price", e);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    private long ttlNanos(String key) {
+        long ttlMs = key.startsWith("CRYPTO:") ? cryptoTtlMs : stockTtlMs;
+        return TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    private static String key(String symbol, String assetType) {
+        boolean crypto = assetType != null && assetType.equalsIgnoreCase("CRYPTO");
+        return (crypto ? "CRYPTO:" : "STOCK:") + symbol;
+    }
+
+    static final class CachedQuote {
+        final double price;
+        final long fetchedAt;
+
+        CachedQuote(double price, long fetchedAt) {
+            this.price = price;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean isFresh(Duration maxStaleness) {
+            return maxStaleness == null || System.nanoTime() - fetchedAt <= maxStaleness.toNanos();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.BigBull.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Search, company info and quote lookups proxied from the Python service.
+ * Each endpoint has its own response cache and TTL, and concurrent misses
+ * for the same request share one upstream call.
+ */
+@Service
+public class StockLookupService implements MeterBinder {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${python.api.url:http://localhost:5000/api}")
+    private String pythonApiUrl;
+
+    @Value("${bigbull.stocks.search-ttl-ms:300000}")
+    private long searchTtlMs;
+
+    @Value("${bigbull.stocks.info-ttl-ms:900000}")
+    private long infoTtlMs;
+
+    @Value("${bigbull.stocks.quote-ttl-ms:5000}")
+    private long quoteTtlMs;
+
+    @Value("${bigbull.stocks.cache-size:10000}")
+    private long cacheSize;
+
+    private Endpoint search;
+    private Endpoint info;
+    private Endpoint quote;
+
+    @PostConstruct
+    void init() {
+        search = new Endpoint(searchTtlMs);
+        info = new Endpoint(infoTtlMs);
+        quote = new Endpoint(quoteTtlMs);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, search.cache, "stocks.search");
+        CaffeineCacheMetrics.monitor(registry, info.cache, "stocks.info");
+        CaffeineCacheMetrics.monitor(registry, quote.cache, "stocks.quote");
+    }
+
+    public Lookup search(String query, int maxResults) {
+        return search.get(maxResults + ":" + query, () -> fetch(UriComponentsBuilder.fromUriString(pythonApiUrl)
+                .path("/search")
+                .queryParam("query", "{query}")
+                .queryParam("max_results", maxResults)
+                .encode()
+                .buildAndExpand(query)
+                .toUri()));
+    }
+
+    public Lookup info(String symbol) {
+        return info.get(symbol, () -> fetch(symbolUri("/stock/info/{symbol}", symbol)));
+    }
+
+    public Lookup quote(String symbol) {
+        return quote.get(symbol, () -> fetch(symbolUri("/stock/quote/{symbol}", symbol)));
+    }
+
+    // Encoded here, so RestTemplate sends the URI as is
+    private URI symbolUri(String path, String symbol) {
+        return UriComponentsBuilder.fromUriString(pythonApiUrl)
+                .path(path)
+                .encode()
+                .buildAndExpand(symbol)
+                .toUri();
+    }
+
+    private Map fetch(URI uri) {
+        return restTemplate.getForObject(uri, Map.class);
+    }
+
+    /** An upstream response and how many more seconds it may be reused. */
+    public static final class Lookup {
+        private final Map body;
+        private final long fetchedAt;
+        private final long ttlMs;
+
+        Lookup(Map body, long fetchedAt, long ttlMs) {
+            this.body = body;
+            this.fetchedAt = fetchedAt;
+            this.ttlMs = ttlMs;
+        }
+
+        public Map getBody() {
+            return body;
+        }
+
+        public long getMaxAgeSeconds() {
+            long remaining = fetchedAt + ttlMs - System.currentTimeMillis();
+            return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(remaining));
+        }
+    }
+
+    private final class Endpoint {
+        final long ttlMs;
+        final Cache<String, Lookup> cache;
+        final ConcurrentHashMap<String, CompletableFuture<Lookup>> inFlight = new ConcurrentHashMap<>();
+
+        Endpoint(long ttlMs) {
+            this.ttlMs = ttlMs;
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(cacheSize)
+                    .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                    .recordStats()
+                    .build();
+        }
+
+        Lookup get(String key, Supplier<Map> loader) {
+            Lookup cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            CompletableFuture<Lookup> created = new CompletableFuture<>();
+            CompletableFuture<Lookup> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                return join(existing);
+            }
+
+            try {
+                // A load that finished between the cache miss and putIfAbsent has already filled the cache
+                Lookup loaded = cache.getIfPresent(key);
+                if (loaded != null) {
+                    created.complete(loaded);
+                    return loaded;
+                }
+
+                // Errors and empty responses are handed to the waiting callers but not cached
+                Lookup lookup = new Lookup(loader.get(), System.currentTimeMillis(), ttlMs);
+                if (lookup.body != null) {
+                    cache.put(key, lookup);
+                }
+                created.complete(lookup);
+                return lookup;
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, created);
+            }
+        }
+
+        private Lookup join(CompletableFuture<Lookup> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for upstream response", e);
+            } catch (ExecutionException | CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new RuntimeException(cause.getMessage(), cause);
+            }
+        }
+    }
+}
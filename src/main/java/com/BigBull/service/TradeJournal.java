@@ -0,0 +1,335 @@
+package com.BigBull.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records in memory-mapped segment files. Each
+ * record gets the next sequence number and is framed as
+ * {@code [length][crc32c][seq][payload]}; a zero length marks the end of a
+ * segment's data, and a bad checksum marks a torn write that recovery drops.
+ *
+ * <p>Writes only copy into the mapping. {@link #sync} makes them durable with
+ * group commit: one waiting thread forces everything written so far while the
+ * others wait on it, so a single flush covers every record that arrived during
+ * the previous one.
+ */
+public class TradeJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 16;
+    private static final String SUFFIX = ".journal";
+
+    private final Path dir;
+    private final int segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private Segment current;
+    private long lastSeq;
+    private long durableSeq;
+    private boolean flushing;
+    private IOException failure;
+
+    public TradeJournal(Path dir, int segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /** One recovered record. */
+    public record Entry(long seq, byte[] payload) {
+    }
+
+    /**
+     * Maps the existing segments and returns every intact record in sequence
+     * order. Sequence numbers continue after the last record, and never at or
+     * below {@code floorSeq}.
+     */
+    public List<Entry> open(long floorSeq) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        lastSeq = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = Segment.map(files.get(i), 0);
+            int end = scan(segment, entries);
+            boolean last = i == files.size() - 1;
+            if (!last && end < segment.buffer.capacity() && segment.buffer.getInt(end) != 0) {
+                throw new IllegalStateException("Corrupt record in " + files.get(i) + " at offset " + end);
+            }
+            segment.position = end;
+            segment.forced = end;
+            segments.add(segment);
+            if (last) {
+                // Drop a torn tail so later appends are not followed by stale bytes
+                clear(segment.buffer, end);
+                segment.buffer.force();
+                current = segment;
+            }
+        }
+
+        lastSeq = Math.max(lastSeq, floorSeq);
+        durableSeq = lastSeq;
+        return entries;
+    }
+
+    /** Copies {@code payload} into the journal and returns its sequence number; not yet durable. */
+    public long write(byte[] payload) throws IOException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + size + " bytes exceeds the segment size");
+        }
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IOException("Journal failed earlier", failure);
+            }
+            if (current == null || current.position + size > current.buffer.capacity()) {
+                roll();
+            }
+
+            long seq = ++lastSeq;
+            CRC32C crc = new CRC32C();
+            crc.update(longBytes(seq));
+            crc.update(payload);
+
+            MappedByteBuffer buffer = current.buffer;
+            int position = current.position;
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.putLong(position + 8, seq);
+            buffer.put(position + HEADER_BYTES, payload);
+            // Length last, so a reader never sees a length without the bytes behind it
+            buffer.putInt(position, payload.length);
+            current.position = position + size;
+            current.lastSeq = seq;
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks until every record up to {@code seq} is on disk. */
+    public void sync(long seq) throws IOException {
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (failure != null) {
+                    throw new IOException("Journal flush failed", failure);
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+
+                // Lead one flush for everything written so far; earlier segments were forced when rolled
+                flushing = true;
+                Segment segment = current;
+                int from = segment.forced;
+                int to = segment.position;
+                long upTo = lastSeq;
+                lock.unlock();
+                IOException error = null;
+                try {
+                    segment.buffer.force(from, to - from);
+                } catch (UncheckedIOException e) {
+                    error = e.getCause();
+                } finally {
+                    lock.lock();
+                }
+
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    segment.forced = Math.max(segment.forced, to);
+                    durableSeq = Math.max(durableSeq, upTo);
+                }
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Writes and syncs one record. */
+    public long append(byte[] payload) throws IOException {
+        long seq = write(payload);
+        sync(seq);
+        return seq;
+    }
+
+    /** Deletes the segments, other than the one being written, holding only records up to {@code seq}. */
+    public void release(long seq) {
+        List<Segment> released = new ArrayList<>();
+        lock.lock();
+        try {
+            while (segments.size() > 1 && segments.peekFirst().lastSeq <= seq) {
+                released.add(segments.pollFirst());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : released) {
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                System.err.println("Could not delete journal segment " + segment.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Highest sequence known to be on disk. */
+    public long getDurableSeq() {
+        lock.lock();
+        try {
+            return durableSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The flush error that stopped the journal, or null; once set, every later write and sync fails. */
+    public IOException getFailure() {
+        lock.lock();
+        try {
+            return failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLastSeq() {
+        lock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (current != null && failure == null) {
+                current.buffer.force();
+            }
+            for (Segment segment : segments) {
+                segment.channel.close();
+            }
+            segments.clear();
+            current = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void roll() throws IOException {
+        if (current != null) {
+            current.buffer.force();
+            current.forced = current.position;
+            durableSeq = Math.max(durableSeq, current.lastSeq);
+        }
+        Path path = dir.resolve(String.format("%020d%s", lastSeq + 1, SUFFIX));
+        current = Segment.map(path, segmentBytes);
+        current.lastSeq = lastSeq;
+        segments.add(current);
+        syncDirectory();
+    }
+
+    // Makes a new segment's directory entry durable; not every platform can open a directory
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Best effort
+        }
+    }
+
+    private int scan(Segment segment, List<Entry> entries) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            long seq = buffer.getLong(position + 8);
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+
+            CRC32C crc = new CRC32C();
+            crc.update(longBytes(seq));
+            crc.update(payload);
+            // Sequences only increase; they skip ahead where a reopen moved them up to its floor
+            if ((int) crc.getValue() != buffer.getInt(position + 4) || seq <= lastSeq) {
+                break;
+            }
+            entries.add(new Entry(seq, payload));
+            lastSeq = seq;
+            segment.lastSeq = seq;
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static void clear(MappedByteBuffer buffer, int from) {
+        byte[] zeros = new byte[64 * 1024];
+        for (int position = from; position < buffer.capacity(); position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+        }
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+        int forced;
+        long lastSeq;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        // size 0 maps an existing file as it is; otherwise a new file of that size
+        static Segment map(Path path, int size) throws IOException {
+            FileChannel channel = size == 0
+                    ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long length = size == 0 ? channel.size() : size;
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        }
+    }
+}
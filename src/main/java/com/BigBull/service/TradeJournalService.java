@@ -0,0 +1,728 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.AssetDTO;
+import com.BigBull.dto.TransactionResponse;
+import com.BigBull.entity.Asset;
+import com.BigBull.entity.Holding;
+import com.BigBull.entity.Transaction;
+import com.BigBull.entity.Wallet;
+import com.BigBull.repository.AssetRepository;
+import com.BigBull.repository.HoldingRepository;
+import com.BigBull.repository.IdSequenceRepository;
+import com.BigBull.repository.TransactionQueryRepository;
+import com.BigBull.repository.WalletRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journal mode for single trades ({@code bigbull.journal.enabled=true}). A
+ * trade is checked against an in-memory copy of the user's wallet and
+ * holdings, appended to the {@link TradeJournal} and acknowledged once the
+ * journal has it on disk. A background projector then applies journaled
+ * trades to the wallet, holdings, assets and transactions tables in batches,
+ * one database transaction per batch.
+ *
+ * <p>Every transaction row carries the journal sequence it came from, so on
+ * startup everything in the journal past the highest projected sequence is
+ * replayed before any request is served. Journal mode assumes it is the only
+ * server writing trades to the database.
+ *
+ * <p>An acknowledged trade is never dropped. If one cannot be projected, the
+ * projector keeps retrying it without moving past it, its journal segment is
+ * kept, new trades are refused and health reports down until it goes through.
+ * A replay that cannot finish stops the application from starting. After a
+ * journal flush fails, trades are refused until a restart; entries already on
+ * disk are still projected, and the restart's replay settles the rest.
+ *
+ * <p>Callers run inside the user's {@link TradeSequencer} lane. Anything else
+ * that changes a user's wallet or holdings must call {@link #awaitProjected}
+ * first, from the same lane, so it sees every journaled trade and the cached
+ * copy is reloaded afterwards.
+ */
+@Service
+public class TradeJournalService implements MeterBinder, HealthIndicator {
+
+    private static final byte BUY = 0;
+    private static final byte SELL = 1;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private TransactionQueryRepository transactionQueryRepository;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Value("${bigbull.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bigbull.journal.dir:./data/journal}")
+    private String dir;
+
+    @Value("${bigbull.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${bigbull.journal.projection-batch-size:500}")
+    private int batchSize;
+
+    @Value("${bigbull.journal.id-block-size:1000}")
+    private int idBlockSize;
+
+    @Value("${bigbull.journal.account-idle-ms:30000}")
+    private long accountIdleMs;
+
+    @Value("${bigbull.journal.await-timeout-ms:10000}")
+    private long awaitTimeoutMs;
+
+    @Value("${bigbull.journal.max-projection-attempts:5}")
+    private int maxProjectionAttempts;
+
+    @Value("${bigbull.trades.max-quote-staleness-ms:2000}")
+    private long maxQuoteStalenessMs;
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Cache<String, Asset> assetsBySymbol = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    // Journaled entries not yet projected, in sequence order; writers hold pendingLock across the journal write
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final Condition queued = pendingLock.newCondition();
+    // Guards projectedSeq waits; locks rather than monitors, so virtual threads blocked on I/O unmount
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final Condition advanced = progressLock.newCondition();
+    private final ReentrantLock idLock = new ReentrantLock();
+    // Sequence of the latest entry journaled for each asset, guarded by pendingLock
+    private final Map<Long, Long> lastSeqByAsset = new HashMap<>();
+    // Assets being or already deleted; orders for them are refused
+    private final Set<Long> retiredAssets = ConcurrentHashMap.newKeySet();
+
+    private TradeJournal journal;
+    private Thread projector;
+    private volatile boolean running;
+    private volatile long projectedSeq;
+    // Set while the oldest unprojected entry keeps failing; new trades are refused meanwhile
+    private volatile String projectionFailure;
+
+    private long nextId;
+    private long idBlockEnd;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new TradeJournal(Path.of(dir), segmentSizeMb * 1024 * 1024);
+
+        // Replay whatever the journal holds past the last projected entry before serving trades
+        long floor = transactionQueryRepository.maxJournalSeq();
+        List<Entry> unprojected = new ArrayList<>();
+        for (TradeJournal.Entry record : journal.open(floor)) {
+            if (record.seq() > floor) {
+                unprojected.add(Entry.decode(record.seq(), record.payload()));
+            }
+        }
+        projectedSeq = floor;
+        for (int from = 0; from < unprojected.size(); from += batchSize) {
+            List<Entry> batch = unprojected.subList(from, Math.min(from + batchSize, unprojected.size()));
+            int projected = project(batch);
+            if (projected > 0) {
+                projectedSeq = batch.get(projected - 1).seq;
+            }
+            if (projected < batch.size()) {
+                // Keep every segment: the entry is replayed again on the next start
+                journal.close();
+                throw new IllegalStateException("Trade journal replay stopped at sequence " + batch.get(projected).seq
+                        + ", journal kept in " + dir + ": " + projectionFailure);
+            }
+        }
+        if (!unprojected.isEmpty()) {
+            System.err.println("Replayed " + unprojected.size() + " journaled trades up to sequence " + projectedSeq);
+        }
+        journal.release(projectedSeq);
+
+        running = true;
+        projector = Thread.ofPlatform().name("trade-journal-projector").daemon(true).start(this::runProjector);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        pendingLock.lock();
+        try {
+            queued.signalAll();
+        } finally {
+            pendingLock.unlock();
+        }
+        projector.join(awaitTimeoutMs);
+        journal.close();
+    }
+
+    /**
+     * Executes one order against the cached account and returns once the
+     * journal entry is durable. The asset totals in the response are as of the
+     * last projected batch.
+     */
+    public TransactionResponse executeTransaction(String username, String symbol, String type, int units) {
+        try {
+            String failure = failure();
+            if (failure != null) {
+                throw new RuntimeException("Trade journal unavailable, " + failure);
+            }
+            Asset asset = assetsBySymbol.get(symbol, key -> assetRepository.findBySymbol(key)
+                    .orElseThrow(() -> new RuntimeException("Asset not found: " + key)));
+            if (retiredAssets.contains(asset.getId())) {
+                throw new RuntimeException("Asset not found: " + symbol);
+            }
+            double livePrice = quoteService.getPrice(symbol, asset.getType(), Duration.ofMillis(maxQuoteStalenessMs));
+
+            Account account = lockAccount(username);
+            long seq;
+            Transaction transaction;
+            double balance;
+            double quantity;
+            try {
+                Holding holding = account.holdings.computeIfAbsent(asset.getId(),
+                        id -> holdingService.getOrCreate(username, asset));
+                // Throws before changing anything when the order cannot be filled
+                transaction = transactionService.applyOrder(account.wallet, asset, holding, type, units, livePrice);
+                balance = account.wallet.getBalance();
+                quantity = holding.getQuantity();
+                try {
+                    transaction.setId(nextTransactionId());
+                    Entry entry = new Entry(transaction.getId(), transaction.getTransactionDate(), asset.getId(),
+                            livePrice, units, "BUY".equals(transaction.getType()) ? BUY : SELL, username);
+                    seq = append(entry);
+                } catch (IOException | RuntimeException e) {
+                    // The copy already holds this order; rebuild it from the database once projection catches up
+                    account.stale = true;
+                    throw e;
+                }
+                account.lastSeq = seq;
+                account.lastUsed = System.currentTimeMillis();
+            } finally {
+                account.lock.unlock();
+            }
+
+            try {
+                journal.sync(seq);
+            } catch (IOException e) {
+                throw new RuntimeException("Order not confirmed, the trade journal failed (" + e.getMessage()
+                        + "); it takes effect only if it reached the disk, which the next restart settles", e);
+            }
+            return transactionService.toResponse(transaction, AssetDTO.of(asset), balance, quantity);
+
+        } catch (Exception e) {
+            throw new RuntimeException("Transaction failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Waits until every journaled trade of {@code username} is in the database
+     * and drops the cached account, so a following database write sees those
+     * trades and the next journaled trade reloads the result.
+     */
+    public void awaitProjected(String username) {
+        if (!enabled) {
+            return;
+        }
+        Account account = accounts.get(username);
+        if (account == null) {
+            return;
+        }
+        account.lock.lock();
+        try {
+            awaitSeq(account.lastSeq);
+            account.evicted = true;
+            accounts.remove(username, account);
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code delete} for an asset without stranding journaled orders that
+     * reference it: new orders for the asset are refused, the ones already
+     * journaled are projected first, and only then is it deleted. Fails without
+     * deleting when projection does not catch up in time; orders are accepted
+     * again if the delete fails.
+     */
+    public void deleteAsset(Asset asset, Runnable delete) {
+        if (!enabled) {
+            delete.run();
+            return;
+        }
+        long seq;
+        pendingLock.lock();
+        try {
+            retiredAssets.add(asset.getId());
+            seq = lastSeqByAsset.getOrDefault(asset.getId(), 0L);
+        } finally {
+            pendingLock.unlock();
+        }
+        assetsBySymbol.invalidate(asset.getSymbol());
+        try {
+            awaitSeq(seq);
+            delete.run();
+        } catch (RuntimeException e) {
+            retiredAssets.remove(asset.getId());
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("bigbull.journal.lag", this, service -> service.journal.getLastSeq() - service.projectedSeq)
+                .description("Journaled trades not yet projected to the database")
+                .register(registry);
+        Gauge.builder("bigbull.journal.accounts", accounts, Map::size)
+                .description("Accounts cached for journal mode")
+                .register(registry);
+        Gauge.builder("bigbull.journal.failed", this, service -> service.failure() != null ? 1 : 0)
+                .description("1 while journal mode refuses trades")
+                .register(registry);
+    }
+
+    @Override
+    public Health health() {
+        if (!enabled) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        String failure = failure();
+        Health.Builder health = failure != null ? Health.down().withDetail("error", failure) : Health.up();
+        return health.withDetail("lastSeq", journal.getLastSeq())
+                .withDetail("projectedSeq", projectedSeq)
+                .build();
+    }
+
+    // Why new trades are refused, or null
+    private String failure() {
+        IOException journalFailure = journal.getFailure();
+        if (journalFailure != null) {
+            return "journal flush failed, restart to recover: " + journalFailure.getMessage();
+        }
+        return projectionFailure;
+    }
+
+    // Returns the user's account locked, loading it when absent and rebuilding it when stale
+    private Account lockAccount(String username) {
+        while (true) {
+            Account account = accounts.computeIfAbsent(username, this::loadAccount);
+            account.lock.lock();
+            if (account.evicted) {
+                account.lock.unlock();
+                continue;
+            }
+            if (account.stale) {
+                try {
+                    awaitSeq(account.lastSeq);
+                    account.evicted = true;
+                    accounts.remove(username, account);
+                } finally {
+                    account.lock.unlock();
+                }
+                continue;
+            }
+            return account;
+        }
+    }
+
+    private Account loadAccount(String username) {
+        Wallet wallet = walletRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Wallet not found: " + username));
+        return new Account(wallet);
+    }
+
+    private long nextTransactionId() {
+        idLock.lock();
+        try {
+            if (nextId == idBlockEnd) {
+                nextId = idSequenceRepository.reserve("transactions", idBlockSize);
+                idBlockEnd = nextId + idBlockSize;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    // Writes the entry and queues it for projection in the same order as its sequence number
+    private long append(Entry entry) throws IOException {
+        byte[] payload = entry.encode();
+        pendingLock.lock();
+        try {
+            if (retiredAssets.contains(entry.assetId)) {
+                throw new RuntimeException("Asset not found: " + entry.assetId);
+            }
+            entry.seq = journal.write(payload);
+            lastSeqByAsset.put(entry.assetId, entry.seq);
+            pending.add(entry);
+            queued.signal();
+            return entry.seq;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private void awaitSeq(long seq) {
+        long deadline = System.currentTimeMillis() + awaitTimeoutMs;
+        progressLock.lock();
+        try {
+            while (projectedSeq < seq) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new RuntimeException("Trade journal projection is behind, try again shortly");
+                }
+                try {
+                    advanced.await(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for trade projection", e);
+                }
+            }
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    private void runProjector() {
+        while (true) {
+            List<Entry> batch = new ArrayList<>(batchSize);
+            pendingLock.lock();
+            try {
+                while (running && pending.isEmpty()) {
+                    try {
+                        queued.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                while (batch.size() < batchSize && !pending.isEmpty()) {
+                    batch.add(pending.poll());
+                }
+            } finally {
+                pendingLock.unlock();
+            }
+
+            long lastSeq = batch.get(batch.size() - 1).seq;
+            try {
+                // Never project an entry the journal could still lose
+                journal.sync(lastSeq);
+            } catch (IOException e) {
+                // Nothing more reaches the disk: apply what did, and leave the rest to the replay on restart
+                long durableSeq = journal.getDurableSeq();
+                int onDisk = 0;
+                while (onDisk < batch.size() && batch.get(onDisk).seq <= durableSeq) {
+                    onDisk++;
+                }
+                System.err.println("Trade journal flush failed, refusing trades until restart; "
+                        + (batch.size() - onDisk) + " unconfirmed trades and any queued after them left to the replay: " + e.getMessage());
+                pendingLock.lock();
+                try {
+                    pending.clear();
+                } finally {
+                    pendingLock.unlock();
+                }
+                if (onDisk == 0) {
+                    continue;
+                }
+                batch = batch.subList(0, onDisk);
+            }
+
+            int projected;
+            try {
+                projected = project(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Trade journal projection failed: " + e.getMessage());
+                projected = 0;
+            }
+
+            if (projected > 0) {
+                long seq = batch.get(projected - 1).seq;
+                progressLock.lock();
+                try {
+                    projectedSeq = seq;
+                    advanced.signalAll();
+                } finally {
+                    progressLock.unlock();
+                }
+                journal.release(seq);
+            }
+            if (projected < batch.size()) {
+                if (!running) {
+                    // Left for the replay on the next start
+                    return;
+                }
+                pause(1000);
+                pendingLock.lock();
+                try {
+                    for (int i = batch.size() - 1; i >= projected; i--) {
+                        pending.addFirst(batch.get(i));
+                    }
+                } finally {
+                    pendingLock.unlock();
+                }
+                continue;
+            }
+            evictIdleAccounts();
+        }
+    }
+
+    /**
+     * Applies a batch in one transaction. If that fails, the entries are
+     * projected one at a time, in order, and this stops at an entry that still
+     * fails after the retries. Returns how many leading entries are now in the
+     * database; the rest stay unprojected, since each was acknowledged as saved.
+     */
+    private int project(List<Entry> batch) {
+        try {
+            optimisticRetry.inTransaction(() -> {
+                applyEntries(batch);
+                return null;
+            });
+            projectionFailure = null;
+            return batch.size();
+        } catch (RuntimeException e) {
+            System.err.println("Projecting " + batch.size() + " journaled trades failed, retrying one by one: "
+                    + e.getMessage());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    optimisticRetry.inTransaction(() -> {
+                        applyEntries(List.of(entry));
+                        return null;
+                    });
+                    break;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxProjectionAttempts) {
+                        projectionFailure = "journaled trade " + entry.seq + " (transaction " + entry.transactionId
+                                + ", " + entry.username + ") cannot be applied: " + e.getMessage();
+                        System.err.println("Trade journal projection stopped: " + projectionFailure);
+                        return i;
+                    }
+                    pause(100L << attempt);
+                }
+            }
+        }
+        projectionFailure = null;
+        return batch.size();
+    }
+
+    // Replays the orders on managed entities, in journal order, and writes them with batched statements
+    private void applyEntries(List<Entry> entries) {
+        Map<Long, Asset> assets = new HashMap<>();
+        for (Asset asset : assetRepository.findAllById(entries.stream().map(entry -> entry.assetId).distinct().toList())) {
+            assets.put(asset.getId(), asset);
+        }
+
+        Map<String, Wallet> wallets = new LinkedHashMap<>();
+        Map<String, Map<Long, Holding>> holdings = new HashMap<>();
+        for (Entry entry : entries) {
+            if (!wallets.containsKey(entry.username)) {
+                wallets.put(entry.username, walletRepository.findByUsername(entry.username)
+                        .orElseThrow(() -> new RuntimeException("Wallet not found: " + entry.username)));
+                Map<Long, Holding> owned = new HashMap<>();
+                for (Holding holding : holdingRepository.findByUsernameAndAssetIn(entry.username, assets.values())) {
+                    owned.put(holding.getAsset().getId(), holding);
+                }
+                holdings.put(entry.username, owned);
+            }
+        }
+
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        List<Long> seqs = new ArrayList<>(entries.size());
+        Map<Long, TransactionService.AssetTrade> assetTrades = new TreeMap<>();
+        for (Entry entry : entries) {
+            Asset asset = assets.get(entry.assetId);
+            if (asset == null) {
+                throw new RuntimeException("Asset not found: " + entry.assetId);
+            }
+            Holding holding = holdings.get(entry.username).computeIfAbsent(asset.getId(),
+                    id -> holdingService.newHolding(entry.username, asset));
+            Transaction transaction = transactionService.applyOrder(wallets.get(entry.username), asset, holding,
+                    entry.side == BUY ? "BUY" : "SELL", entry.units, entry.price);
+            transaction.setId(entry.transactionId);
+            transaction.setTransactionDate(entry.date);
+            assetTrades.computeIfAbsent(asset.getId(), id -> new TransactionService.AssetTrade()).add(transaction);
+            transactions.add(transaction);
+            seqs.add(entry.seq);
+        }
+
+        walletRepository.saveAll(wallets.values());
+        for (Map<Long, Holding> owned : holdings.values()) {
+            holdingRepository.saveAll(owned.values());
+        }
+        transactionQueryRepository.insertJournaled(transactions, seqs);
+        transactionService.applyAssetTrades(assetTrades);
+        for (Map.Entry<String, Map<Long, Holding>> owned : holdings.entrySet()) {
+            portfolioAggregates.applyAfterCommit(owned.getKey(), owned.getValue().values());
+        }
+    }
+
+    // Drops accounts with nothing left to project that have not traded for a while
+    private void evictIdleAccounts() {
+        long idleBefore = System.currentTimeMillis() - accountIdleMs;
+        for (Account account : accounts.values()) {
+            if (account.lastUsed < idleBefore && account.lastSeq <= projectedSeq && account.lock.tryLock()) {
+                try {
+                    if (account.lastSeq <= projectedSeq) {
+                        account.evicted = true;
+                        accounts.remove(account.wallet.getUsername(), account);
+                    }
+                } finally {
+                    account.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A user's wallet and touched holdings as of their last journaled trade; detached copies, never saved
+    private static final class Account {
+        final ReentrantLock lock = new ReentrantLock();
+        final Wallet wallet;
+        final Map<Long, Holding> holdings = new HashMap<>();
+        volatile long lastSeq;
+        volatile long lastUsed = System.currentTimeMillis();
+        // Replaced by a fresh load on next use
+        volatile boolean evicted;
+        // Ahead of or out of step with the database; rebuilt once projection catches up
+        volatile boolean stale;
+
+        Account(Wallet wallet) {
+            this.wallet = wallet;
+        }
+    }
+
+    // One journaled order, as written to and read back from the journal
+    private static final class Entry {
+        long seq;
+        final long transactionId;
+        final LocalDateTime date;
+        final long assetId;
+        final double price;
+        final int units;
+        final byte side;
+        final String username;
+
+        Entry(long transactionId, LocalDateTime date, long assetId, double price, int units, byte side, String username) {
+            this.transactionId = transactionId;
+            this.date = date;
+            this.assetId = assetId;
+            this.price = price;
+            this.units = units;
+            this.side = side;
+            this.username = username;
+        }
+
+        byte[] encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeLong(transactionId);
+                // The wall-clock date as stored, not an instant
+                out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(date.getNano());
+                out.writeLong(assetId);
+                out.writeDouble(price);
+                out.writeInt(units);
+                out.writeByte(side);
+                out.writeUTF(username);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        static Entry decode(long seq, byte[] payload) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+                Entry entry = new Entry(in.readLong(),
+                        LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC),
+                        in.readLong(), in.readDouble(), in.readInt(), in.readByte(), in.readUTF());
+                entry.seq = seq;
+                return entry;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
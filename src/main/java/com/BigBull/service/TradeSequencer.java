@@ -0,0 +1,144 @@
+package com.BigBull.service;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Routes each user's trades to one of a fixed set of single-writer lanes. A
+ * lane is a lock-free queue drained by at most one thread at a time, so trades
+ * for the same user run strictly one after another and never race on the
+ * wallet, while users on different lanes run in parallel.
+ *
+ * <p>Tasks must not submit back into the sequencer: a task waiting on its own
+ * lane would never finish.
+ *
+ * <p>Each task runs with the submitting thread's observation and trace context,
+ * so its spans stay part of the request that queued it.
+ */
+@Component
+public class TradeSequencer {
+
+    @Value("${bigbull.trades.sequencer-stripes:64}")
+    private int stripes;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+
+    private Lane[] lanes;
+    private ExecutorService executor;
+
+    public TradeSequencer() {
+    }
+
+    /** Standalone sequencer draining its lanes on {@code executor}. */
+    public TradeSequencer(int stripes, ExecutorService executor) {
+        init(stripes, executor);
+    }
+
+    @PostConstruct
+    void start() {
+        if (virtualThreads) {
+            init(stripes, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("trade-lane-", 0).factory()));
+        } else {
+            // A lane occupies at most one thread, so one thread per lane is the most that can be used
+            ThreadFactory factory = Thread.ofPlatform().name("trade-lane-", 0).daemon(true).factory();
+            init(stripes, Executors.newFixedThreadPool(laneCount(stripes), factory));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /** Queues {@code task} on the lane owning {@code username}. */
+    public <T> CompletableFuture<T> submit(String username, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Lane lane = lanes[spread(username.hashCode()) & (lanes.length - 1)];
+        lane.queue.offer(snapshots.captureAll().wrap(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }));
+        lane.schedule();
+        return result;
+    }
+
+    /** Runs {@code task} on the user's lane and waits for it, rethrowing its exception. */
+    public <T> T execute(String username, Supplier<T> task) {
+        try {
+            return submit(username, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void execute(String username, Runnable task) {
+        execute(username, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private void init(int stripes, ExecutorService executor) {
+        int size = laneCount(stripes);
+        this.executor = executor;
+        this.lanes = new Lane[size];
+        for (int i = 0; i < size; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    // Rounded up to a power of two so a lane is picked with a mask
+    private static int laneCount(int stripes) {
+        return stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Lane implements Runnable {
+        final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                task.run();
+            }
+            scheduled.set(false);
+
+            // A trade queued between the last poll and clearing the flag would otherwise be stranded
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
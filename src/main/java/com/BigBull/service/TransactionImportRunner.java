@@ -0,0 +1,49 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.TransactionImportResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line import: started with {@code --bigbull.import.file=history.csv}
+ * (or {@code .csv.gz}), the application imports the file and exits, with
+ * status 1 when any row was rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "bigbull.import.file")
+public class TransactionImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${bigbull.import.file}")
+    private String file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        TransactionImportResult result;
+        try (InputStream in = Files.newInputStream(Path.of(file))) {
+            result = transactionImportService.importCsv(file.endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in);
+        }
+        System.out.println("Imported " + result.getRowsImported() + " transactions, rejected " + result.getRowsRejected()
+                + ", in " + result.getElapsedMs() + " ms (" + result.getRowsPerSecond() + " rows/s)");
+        for (String error : result.getErrors()) {
+            System.err.println(error);
+        }
+        System.exit(SpringApplication.exit(context, () -> result.getRowsRejected() > 0 ? 1 : 0));
+    }
+}
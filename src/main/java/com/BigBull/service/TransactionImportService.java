@@ -0,0 +1,404 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.TransactionImportResult;
+import com.BigBull.entity.Asset;
+import com.BigBull.entity.Holding;
+import com.BigBull.entity.Transaction;
+import com.BigBull.entity.Wallet;
+import com.BigBull.repository.AssetRepository;
+import com.BigBull.repository.HoldingRepository;
+import com.BigBull.repository.IdSequenceRepository;
+import com.BigBull.repository.TransactionQueryRepository;
+import com.BigBull.repository.WalletRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk import of historical trades from CSV, such as a new client's broker
+ * history. The file is read a line at a time and each row is recorded at its
+ * own price and date; nothing is priced live. Rows are inserted in JDBC
+ * batches, one database transaction per batch, with ids reserved a block at a
+ * time. Invalid rows are skipped and reported.
+ *
+ * <p>Once the rows are in, each affected user's holdings are rebuilt by
+ * replaying their whole history in date order, so imported trades interleave
+ * correctly with existing ones, and asset totals are updated once per asset.
+ * Wallets get the imported buys and sells added to their invested and
+ * withdrawn totals, but their cash balance is left alone: historical trades
+ * were paid for elsewhere. Users without a wallet get one with a zero balance.
+ *
+ * <p>Expected header (any column order, extra columns ignored):
+ * {@code username,symbol,type,units,price,date}, where {@code date} is an ISO
+ * date or date-time.
+ *
+ * <p>Progress is counted in {@code bigbull.import.rows} by outcome, so a long
+ * import's rate can be watched while it runs.
+ */
+@Service
+public class TransactionImportService implements MeterBinder {
+
+    private static final List<String> COLUMNS = List.of("username", "symbol", "type", "units", "price", "date");
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private TransactionQueryRepository transactionQueryRepository;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private TradeJournalService tradeJournalService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bigbull.import.batch-size:1000}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder importedRows = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        rowCounter(registry, "imported", importedRows);
+        rowCounter(registry, "rejected", rejectedRows);
+    }
+
+    private static void rowCounter(MeterRegistry registry, String outcome, LongAdder count) {
+        FunctionCounter.builder("bigbull.import.rows", count, LongAdder::sum)
+                .description("Rows of CSV trade imports by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public TransactionImportResult importCsv(InputStream in) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        int[] columns = columns(split(header.replace("\uFEFF", "")));
+
+        Import run = new Import();
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        LocalDateTime now = LocalDateTime.now();
+        long lineNumber = 1;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.read++;
+                try {
+                    batch.add(parse(split(line), columns, run.assets, now));
+                } catch (RuntimeException e) {
+                    run.reject("line " + lineNumber + ": " + e.getMessage());
+                    rejectedRows.increment();
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    insert(batch, run);
+                }
+            }
+            insert(batch, run);
+        } catch (IOException | RuntimeException e) {
+            rebuild(run);
+            throw new RuntimeException("Import stopped at line " + lineNumber + " after " + run.imported
+                    + " rows: " + e.getMessage(), e);
+        }
+        rebuild(run);
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        return new TransactionImportResult(run.read, run.imported, run.rejected, run.users.size(), run.errors,
+                elapsedMs, rowsPerSecond(run.imported, started));
+    }
+
+    private Transaction parse(List<String> fields, int[] columns, Map<String, Optional<Asset>> assets, LocalDateTime now) {
+        if (fields.size() < COLUMNS.size()) {
+            throw new RuntimeException("Expected at least " + COLUMNS.size() + " fields, found " + fields.size());
+        }
+        String username = field(fields, columns[0]);
+        if (username.isEmpty() || username.length() > 255) {
+            throw new RuntimeException("Invalid username: " + username);
+        }
+        String symbol = field(fields, columns[1]);
+        Asset asset = assets.computeIfAbsent(symbol, assetRepository::findBySymbol)
+                .orElseThrow(() -> new RuntimeException("Asset not found: " + symbol));
+        String type = field(fields, columns[2]).toUpperCase(Locale.ROOT);
+        if (!"BUY".equals(type) && !"SELL".equals(type)) {
+            throw new RuntimeException("Invalid transaction type: " + type);
+        }
+        int units;
+        double price;
+        try {
+            units = Integer.parseInt(field(fields, columns[3]));
+            price = Double.parseDouble(field(fields, columns[4]));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid number: " + e.getMessage());
+        }
+        if (units <= 0) {
+            throw new RuntimeException("Units must be positive: " + units);
+        }
+        if (!(price > 0) || Double.isInfinite(price)) {
+            throw new RuntimeException("Invalid price: " + price);
+        }
+        LocalDateTime date = parseDate(field(fields, columns[5]));
+        if (date.isAfter(now)) {
+            throw new RuntimeException("Date is in the future: " + date);
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setUsername(username);
+        transaction.setAsset(asset);
+        transaction.setType(type);
+        transaction.setUnits(units);
+        transaction.setQuantity((double) units);
+        transaction.setPrice(price);
+        transaction.setPricePerUnit(price);
+        transaction.setTotalAmount(price * units);
+        transaction.setTransactionDate(date);
+        return transaction;
+    }
+
+    // One JDBC batch in its own transaction; totals only count rows that committed
+    private void insert(List<Transaction> batch, Import run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long id = idSequenceRepository.reserve("transactions", batch.size());
+        for (Transaction transaction : batch) {
+            transaction.setId(id++);
+        }
+        transactionTemplate.executeWithoutResult(status -> transactionQueryRepository.insert(batch));
+
+        for (Transaction transaction : batch) {
+            double[] totals = run.users.computeIfAbsent(transaction.getUsername(), key -> new double[2]);
+            totals["BUY".equals(transaction.getType()) ? 0 : 1] += transaction.getTotalAmount();
+            run.assetTrades.computeIfAbsent(transaction.getAsset().getId(), key -> new TransactionService.AssetTrade())
+                    .add(transaction);
+        }
+        run.imported += batch.size();
+        importedRows.add(batch.size());
+        batch.clear();
+    }
+
+    /**
+     * Folds everything imported so far into asset totals, wallets and holdings.
+     * Each user is rebuilt in their trade lane, after any journaled trades of
+     * theirs are in the database, so live trades never interleave with it.
+     */
+    private void rebuild(Import run) {
+        if (!run.assetTrades.isEmpty()) {
+            optimisticRetry.inTransaction(() -> transactionService.applyAssetTrades(run.assetTrades));
+        }
+
+        Map<String, CompletableFuture<Void>> rebuilds = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> user : run.users.entrySet()) {
+            String username = user.getKey();
+            rebuilds.put(username, tradeSequencer.submit(username, () -> {
+                tradeJournalService.awaitProjected(username);
+                return optimisticRetry.inTransaction(() -> {
+                    rebuildUser(username, user.getValue()[0], user.getValue()[1]);
+                    return null;
+                });
+            }));
+        }
+        for (Map.Entry<String, CompletableFuture<Void>> rebuild : rebuilds.entrySet()) {
+            try {
+                rebuild.getValue().join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                run.error("user " + rebuild.getKey() + ": rebuilding holdings failed: " + cause.getMessage());
+            }
+        }
+    }
+
+    private void rebuildUser(String username, double bought, double sold) {
+        Wallet wallet = walletRepository.findByUsername(username)
+                .orElseGet(() -> walletService.createWallet(username, 0.0));
+        wallet.setTotalInvested(wallet.getTotalInvested() + bought);
+        wallet.setTotalWithdrawn(wallet.getTotalWithdrawn() + sold);
+        wallet.setUpdatedAt(LocalDateTime.now());
+        walletRepository.save(wallet);
+
+        Map<Long, Holding> holdings = new HashMap<>();
+        for (Holding holding : holdingRepository.findAllByUsernameWithAsset(username)) {
+            holding.setQuantity(0.0);
+            holding.setAverageCost(0.0);
+            holding.setRealizedPnl(0.0);
+            holdings.put(holding.getAsset().getId(), holding);
+        }
+        // Same replay as the holdings backfill: oldest first, sells capped at what is held
+        transactionQueryRepository.streamHistory(username, rs -> {
+            Holding holding = holdings.computeIfAbsent(rs.getLong("asset_id"),
+                    id -> holdingService.newHolding(username, assetRepository.getReferenceById(id)));
+            double units = rs.getDouble("quantity");
+            double price = rs.getDouble("price_per_unit");
+            String type = rs.getString("type");
+            if ("BUY".equalsIgnoreCase(type)) {
+                holdingService.applyBuy(holding, units, price);
+            } else if ("SELL".equalsIgnoreCase(type)) {
+                holdingService.applySell(holding, Math.min(units, holding.getQuantity()), price);
+            }
+        });
+        holdingRepository.saveAll(holdings.values());
+        portfolioAggregates.applyAfterCommit(username, holdings.values());
+    }
+
+    private static int[] columns(List<String> header) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.putIfAbsent(header.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            Integer position = positions.get(COLUMNS.get(i));
+            if (position == null) {
+                throw new IllegalArgumentException("CSV header is missing column '" + COLUMNS.get(i)
+                        + "'; expected " + String.join(",", COLUMNS));
+            }
+            columns[i] = position;
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column >= fields.size()) {
+            throw new RuntimeException("Missing field " + (column + 1));
+        }
+        return fields.get(column);
+    }
+
+    private static LocalDateTime parseDate(String value) {
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date: " + value);
+        }
+    }
+
+    // Comma-separated fields, trimmed; double quotes around a field allow commas, "" is a literal quote
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static long rowsPerSecond(long rows, long startedNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedNanos);
+        return rows * 1_000_000_000L / elapsedNanos;
+    }
+
+    // Running state of one import
+    private static final class Import {
+        final Map<String, Optional<Asset>> assets = new HashMap<>();
+        // Per user: imported buy and sell amounts
+        final Map<String, double[]> users = new LinkedHashMap<>();
+        final Map<Long, TransactionService.AssetTrade> assetTrades = new TreeMap<>();
+        final List<String> errors = new ArrayList<>();
+        long read;
+        long imported;
+        long rejected;
+
+        void reject(String message) {
+            rejected++;
+            error(message);
+        }
+
+        void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+    }
+}
@@ -1,26 +1,51 @@
 package com.BigBull.service;
 
+import com.BigBull.dto.AssetDTO;
+import com.BigBull.dto.OrderRequest;
+import com.BigBull.dto.TransactionDTO;
+import com.BigBull.dto.TransactionPage;
 import com.BigBull.dto.TransactionResponse;
 import com.BigBull.entity.Asset;
+import com.BigBull.entity.Holding;
 import com.BigBull.entity.Transaction;
 import com.BigBull.entity.Wallet;
 import com.BigBull.repository.AssetRepository;
+import com.BigBull.repository.HoldingRepository;
+import com.BigBull.repository.TransactionQueryRepository;
 import com.BigBull.repository.TransactionRepository;
 import com.BigBull.repository.WalletRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 @Service
 public class TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int MAX_BATCH_ORDERS = 1000;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
@@ -31,165 +56,361 @@ public class TransactionService {
     private WalletRepository walletRepository;
 
     @Autowired
-    private org.springframework.web.client.RestTemplate restTemplate;
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private HoldingService holdingService;
+
+    @Autowired
+    private TransactionQueryRepository transactionQueryRepository;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
 
-    private static final String PYTHON_API_URL = "http://localhost:5000/api";
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Value("${bigbull.trades.max-quote-staleness-ms:2000}")
+    private long maxQuoteStalenessMs;
 
-    @Transactional
     public TransactionResponse executeTransaction(String username, String symbol, String type, int units) {
         try {
             // 1. Fetch asset
-            Asset asset = assetRepository.findBySymbol(symbol)
+            Asset quoted = assetRepository.findBySymbol(symbol)
                     .orElseThrow(() -> new RuntimeException("Asset not found: " + symbol));
 
-            // 2. Fetch live price from Python API
-            double livePrice = fetchLivePriceFromPython(symbol, asset.getType());
+            // 2. Fetch live price, accepting only a recently cached quote; done before
+            //    the database transaction so a slow quote never holds it open
+            double livePrice = phase("price", () -> quoteService.getPrice(symbol, quoted.getType(),
+                    Duration.ofMillis(maxQuoteStalenessMs)));
+
+            // 3. Apply the order, re-reading the versioned rows on every attempt
+            return phase("transaction", () -> optimisticRetry.inTransaction(() -> {
+                Asset asset = assetRepository.findBySymbol(symbol)
+                        .orElseThrow(() -> new RuntimeException("Asset not found: " + symbol));
+                Wallet wallet = walletRepository.findByUsername(username)
+                        .orElseThrow(() -> new RuntimeException("Wallet not found: " + username));
+                Holding holding = holdingService.getOrCreate(username, asset);
+
+                // Process BUY or SELL
+                Transaction applied = phase("apply", () -> applyOrder(wallet, asset, holding, type, units, livePrice));
+
+                // Save updated entities and the transaction
+                return phase("persist", () -> {
+                    walletRepository.save(wallet);
+                    holdingRepository.save(holding);
+                    Transaction transaction = transactionRepository.save(applied);
+
+                    // Asset-wide quantity and cost, updated in place since every user's trades hit this row
+                    AssetTrade assetTrade = new AssetTrade();
+                    assetTrade.add(transaction);
+                    AssetDTO assetView = applyAssetTrades(Map.of(asset.getId(), assetTrade)).get(asset.getId());
+                    portfolioAggregates.applyAfterCommit(username, List.of(holding));
+
+                    return toResponse(transaction, assetView, wallet.getBalance(), holding.getQuantity());
+                });
+            }));
 
-            // 3. Fetch wallet
-            Wallet wallet = walletRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Wallet not found: " + username));
+        } catch (Exception e) {
+            throw new RuntimeException("Transaction failed: " + e.getMessage(), e);
+        }
+    }
 
-            // 4. Calculate transaction amount
-            double totalAmount = livePrice * units;
+    /**
+     * Executes many orders for one user in a single database transaction. Each
+     * distinct symbol is priced once, the orders are applied in sequence against
+     * the same wallet, and the transaction rows are written as one JDBC batch.
+     * Any failing order rolls back the whole batch.
+     */
+    public List<TransactionResponse> executeBatch(String username, List<OrderRequest> orders) {
+        try {
+            if (orders == null || orders.isEmpty()) {
+                throw new RuntimeException("No orders given");
+            }
+            if (orders.size() > MAX_BATCH_ORDERS) {
+                throw new RuntimeException("Too many orders. Maximum per batch: " + MAX_BATCH_ORDERS);
+            }
 
-            // 5. Process BUY or SELL
-            if ("BUY".equalsIgnoreCase(type)) {
-                // Check if wallet has enough balance
-                if (wallet.getBalance() < totalAmount) {
-                    throw new RuntimeException("Insufficient balance. Required: " + totalAmount + ", Available: " + wallet.getBalance());
+            // 1. Fetch every distinct asset in one query
+            Set<String> symbols = new LinkedHashSet<>();
+            for (OrderRequest order : orders) {
+                symbols.add(order.getSymbol());
+            }
+            Map<String, String> typesBySymbol = new LinkedHashMap<>();
+            for (Asset asset : assetRepository.findBySymbolIn(symbols)) {
+                typesBySymbol.put(asset.getSymbol(), asset.getType());
+            }
+            for (String symbol : symbols) {
+                if (!typesBySymbol.containsKey(symbol)) {
+                    throw new RuntimeException("Asset not found: " + symbol);
                 }
+            }
 
-                // Deduct from wallet
-                wallet.setBalance(wallet.getBalance() - totalAmount);
-                wallet.setTotalInvested(wallet.getTotalInvested() + totalAmount);
-
-                // Update asset quantity and cost
-                double currentQuantity = asset.getQuantity() != null ? asset.getQuantity() : 0;
-                double currentCost = asset.getCostPerUnit() != null ? asset.getCostPerUnit() : 0;
-
-                if (currentQuantity == 0) {
-                    // First purchase
-                    asset.setCostPerUnit(livePrice);
-                    asset.setQuantity((double) units);
-                } else {
-                    // Calculate weighted average cost
-                    double totalValue = (currentQuantity * currentCost) + (units * livePrice);
-                    double newQuantity = currentQuantity + units;
-                    double newAvgCost = totalValue / newQuantity;
-
-                    asset.setCostPerUnit(newAvgCost);
-                    asset.setQuantity(newQuantity);
+            // 2. Price each distinct symbol once, outside the database transaction
+            Map<String, Double> prices = phase("price",
+                    () -> quoteService.getPrices(typesBySymbol, Duration.ofMillis(maxQuoteStalenessMs)));
+            for (String symbol : symbols) {
+                if (!prices.containsKey(symbol)) {
+                    throw new RuntimeException("Failed to fetch price for: " + symbol);
                 }
+            }
 
-            } else if ("SELL".equalsIgnoreCase(type)) {
-                double currentQuantity = asset.getQuantity() != null ? asset.getQuantity() : 0;
+            // 3. Apply the orders, re-reading the versioned rows on every attempt
+            return phase("transaction",
+                    () -> optimisticRetry.inTransaction(() -> applyBatch(username, orders, symbols, prices)));
 
-                // Check if asset has enough units
-                if (currentQuantity < units) {
-                    throw new RuntimeException("Insufficient units. Required: " + units + ", Available: " + currentQuantity);
-                }
+        } catch (Exception e) {
+            throw new RuntimeException("Batch failed: " + e.getMessage(), e);
+        }
+    }
 
-                // Add to wallet
-                wallet.setBalance(wallet.getBalance() + totalAmount);
-                wallet.setTotalWithdrawn(wallet.getTotalWithdrawn() + totalAmount);
+    private List<TransactionResponse> applyBatch(String username, List<OrderRequest> orders, Set<String> symbols,
+                                                 Map<String, Double> prices) {
+        Map<String, Asset> assets = new HashMap<>();
+        for (Asset asset : assetRepository.findBySymbolIn(symbols)) {
+            assets.put(asset.getSymbol(), asset);
+        }
+        Wallet wallet = walletRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Wallet not found: " + username));
 
-                // Update asset quantity
-                asset.setQuantity(currentQuantity - units);
+        // The user's existing holdings of these assets in one query
+        Map<Long, Holding> holdings = new HashMap<>();
+        for (Holding holding : holdingRepository.findByUsernameAndAssetIn(username, assets.values())) {
+            holdings.put(holding.getAsset().getId(), holding);
+        }
 
-            } else {
-                throw new RuntimeException("Invalid transaction type: " + type);
+        // Apply the orders in sequence, netting the asset-wide changes per asset
+        List<Transaction> transactions = new ArrayList<>(orders.size());
+        double[] walletBalances = new double[orders.size()];
+        double[] holdingQuantities = new double[orders.size()];
+        Map<Long, AssetTrade> assetTrades = new TreeMap<>();
+        phase("apply", () -> {
+            for (OrderRequest order : orders) {
+                Asset asset = assets.get(order.getSymbol());
+                if (asset == null) {
+                    throw new RuntimeException("Asset not found: " + order.getSymbol());
+                }
+                Holding holding = holdings.computeIfAbsent(asset.getId(),
+                        id -> holdingService.newHolding(username, asset));
+                Transaction transaction = applyOrder(wallet, asset, holding, order.getType(), order.getUnits(),
+                        prices.get(order.getSymbol()));
+                assetTrades.computeIfAbsent(asset.getId(), id -> new AssetTrade()).add(transaction);
+                walletBalances[transactions.size()] = wallet.getBalance();
+                holdingQuantities[transactions.size()] = holding.getQuantity();
+                transactions.add(transaction);
             }
+            return transactions;
+        });
 
-            // 6. Save updated entities
-            wallet.setUpdatedAt(LocalDateTime.now());
+        // Save updated entities; transaction rows are inserted as one JDBC batch
+        Map<Long, AssetDTO> assetViews = phase("persist", () -> {
             walletRepository.save(wallet);
-            asset.setUpdatedAt(LocalDateTime.now());
-            assetRepository.save(asset);
-
-            // 7. Create and save transaction
-            Transaction transaction = new Transaction();
-            transaction.setUsername(username);
-            transaction.setAsset(asset);
-            transaction.setType(type.toUpperCase());
-            transaction.setUnits(units);
-            transaction.setQuantity((double) units);
-            transaction.setPrice(livePrice);
-            transaction.setPricePerUnit(livePrice);
-            transaction.setTotalAmount(totalAmount);
-            transaction.setTransactionDate(LocalDateTime.now());
-
-            transaction = transactionRepository.save(transaction);
-
-            // 8. Return response
-            return new TransactionResponse(
-                    transaction.getId(),
-                    username,
-                    asset,
-                    type.toUpperCase(),
-                    units,
-                    livePrice,
-                    totalAmount,
-                    transaction.getTransactionDate().toString(),
-                    wallet.getBalance(),
-                    asset.getQuantity(),
-                    String.format("Transaction successful. %d units of %s %sed at %.2f",
-                            units, symbol, type.toLowerCase(), livePrice)
-            );
-
-        } catch (Exception e) {
-            throw new RuntimeException("Transaction failed: " + e.getMessage(), e);
+            holdingRepository.saveAll(holdings.values());
+            transactionRepository.saveAll(transactions);
+            Map<Long, AssetDTO> views = applyAssetTrades(assetTrades);
+            portfolioAggregates.applyAfterCommit(username, holdings.values());
+            return views;
+        });
+
+        List<TransactionResponse> responses = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            responses.add(toResponse(transaction, assetViews.get(transaction.getAsset().getId()),
+                    walletBalances[i], holdingQuantities[i]));
         }
+        return responses;
     }
 
-    private double fetchLivePriceFromPython(String symbol, String assetType) {
-        try {
-            String endpoint = (assetType != null && assetType.equalsIgnoreCase("CRYPTO"))
-                    ? "/crypto/quote/" + symbol
-                    : "/stock/quote/" + symbol;
-
-            String url = PYTHON_API_URL + endpoint;
-
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-
-            if (response.getBody() != null) {
-                Map<String, Object> data = response.getBody();
-                Object priceObj = data.get("price");
-
-                if (priceObj != null) {
-                    if (priceObj instanceof Number) {
-                        return ((Number) priceObj).doubleValue();
-                    } else if (priceObj instanceof String) {
-                        return Double.parseDouble((String) priceObj);
-                    }
-                }
+    /**
+     * Runs one step of a trade as an observation: a {@code bigbull.trade.phase}
+     * timer tagged with the phase, and a child span of the request's trace.
+     * The "transaction" phase spans every retry and the commit. Inside it,
+     * "apply" only changes the loaded entities in memory; the database I/O is
+     * under "persist", apart from the reads before it and the commit's flush.
+     */
+    private <T> T phase(String name, Supplier<T> step) {
+        return Observation.createNotStarted("bigbull.trade.phase", observationRegistry)
+                .contextualName("trade " + name)
+                .lowCardinalityKeyValue("phase", name)
+                .observe(step);
+    }
+
+    Transaction applyOrder(Wallet wallet, Asset asset, Holding holding, String type, int units, double livePrice) {
+        if (units <= 0) {
+            throw new RuntimeException("Units must be positive: " + units);
+        }
+        double totalAmount = livePrice * units;
+
+        if ("BUY".equalsIgnoreCase(type)) {
+            // Check if wallet has enough balance
+            if (wallet.getBalance() < totalAmount) {
+                throw new RuntimeException("Insufficient balance. Required: " + totalAmount + ", Available: " + wallet.getBalance());
             }
 
-            throw new RuntimeException("Failed to fetch price for: " + symbol);
+            // Deduct from wallet
+            wallet.setBalance(wallet.getBalance() - totalAmount);
+            wallet.setTotalInvested(wallet.getTotalInvested() + totalAmount);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Python API Error for " + symbol + ": " + e.getMessage(), e);
+            // Update the user's holding
+            holdingService.applyBuy(holding, units, livePrice);
+
+        } else if ("SELL".equalsIgnoreCase(type)) {
+            // Check if the user holds enough units
+            holdingService.applySell(holding, units, livePrice);
+
+            // Add to wallet
+            wallet.setBalance(wallet.getBalance() + totalAmount);
+            wallet.setTotalWithdrawn(wallet.getTotalWithdrawn() + totalAmount);
+
+        } else {
+            throw new RuntimeException("Invalid transaction type: " + type);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        wallet.setUpdatedAt(now);
+
+        Transaction transaction = new Transaction();
+        transaction.setUsername(wallet.getUsername());
+        transaction.setAsset(asset);
+        transaction.setType(type.toUpperCase());
+        transaction.setUnits(units);
+        transaction.setQuantity((double) units);
+        transaction.setPrice(livePrice);
+        transaction.setPricePerUnit(livePrice);
+        transaction.setTotalAmount(totalAmount);
+        transaction.setTransactionDate(now);
+        return transaction;
+    }
+
+    /**
+     * Applies the net asset-wide quantity and weighted cost changes with one
+     * atomic UPDATE per asset, in id order, and returns the updated assets.
+     * Must run after the other entities are saved: it clears the persistence
+     * context, flushing first so saved holdings carry their new versions.
+     */
+    Map<Long, AssetDTO> applyAssetTrades(Map<Long, AssetTrade> assetTrades) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, AssetTrade> entry : assetTrades.entrySet()) {
+            AssetTrade trade = entry.getValue();
+            assetRepository.applyTrade(entry.getKey(), trade.buyUnits, trade.buyAmount, trade.sellUnits, now);
+        }
+
+        Map<Long, AssetDTO> views = new HashMap<>();
+        for (Long assetId : assetTrades.keySet()) {
+            assetRepository.findViewById(assetId).ifPresent(view -> views.put(assetId, view));
         }
+        return views;
     }
 
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    TransactionResponse toResponse(Transaction transaction, AssetDTO asset, double walletBalance,
+                                   double holdingQuantity) {
+        return new TransactionResponse(
+                transaction.getId(),
+                transaction.getUsername(),
+                asset,
+                transaction.getType(),
+                transaction.getUnits(),
+                transaction.getPrice(),
+                transaction.getTotalAmount(),
+                transaction.getTransactionDate().toString(),
+                walletBalance,
+                holdingQuantity,
+                String.format("Transaction successful. %d units of %s %sed at %.2f",
+                        transaction.getUnits(), transaction.getAsset().getSymbol(), transaction.getType().toLowerCase(),
+                        transaction.getPrice())
+        );
     }
 
-    public Transaction getTransactionById(Long id) {
-        return transactionRepository.findById(id)
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(String username, LocalDateTime from, LocalDateTime to,
+                                              String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime afterDate = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterDate = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Fetch one extra row to know whether another page follows
+        List<TransactionDTO> rows = transactionQueryRepository.findPage(username, from, to, afterDate, afterId, pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            TransactionDTO last = rows.get(pageSize - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getTransactionDate() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new TransactionPage(rows, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamTransactions(String username, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        boolean[] first = {true};
+        out.write('[');
+        transactionQueryRepository.stream(username, from, to, rs -> {
+            try {
+                if (!first[0]) {
+                    out.write(',');
+                }
+                first[0] = false;
+                out.write(objectMapper.writeValueAsBytes(TransactionQueryRepository.mapRow(rs)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.write(']');
+        out.flush();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionDTO> getAllTransactions() {
+        return transactionRepository.findAllViews();
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionDTO getTransactionById(Long id) {
+        return transactionRepository.findViewById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
     }
 
-    public List<Transaction> getTransactionsByUsername(String username) {
-        return transactionRepository.findByUsername(username);
+    @Transactional(readOnly = true)
+    public List<TransactionDTO> getTransactionsByUsername(String username) {
+        return transactionRepository.findViewsByUsername(username);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionDTO> getTransactionsByAssetId(Long assetId) {
+        return transactionRepository.findViewsByAssetId(assetId);
     }
 
-    public List<Transaction> getTransactionsByAssetId(Long assetId) {
-        return transactionRepository.findByAssetId(assetId);
+    // Net asset-wide change from one or more orders on the same asset
+    static final class AssetTrade {
+        double buyUnits;
+        double buyAmount;
+        double sellUnits;
+
+        void add(Transaction transaction) {
+            if ("BUY".equals(transaction.getType())) {
+                buyUnits += transaction.getUnits();
+                buyAmount += transaction.getTotalAmount();
+            } else {
+                sellUnits += transaction.getUnits();
+            }
+        }
     }
 }
@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 @Service
 public class WalletService {
 
@@ -40,21 +42,14 @@ public class WalletService {
 
     @Transactional
     public Wallet deductBalance(String username, Double amount) {
-        Wallet wallet = getWalletByUsername(username);
-        if (wallet.getBalance() < amount) {
-            throw new RuntimeException("Insufficient balance. Required: " + amount + ", Available: " + wallet.getBalance());
-        }
-        wallet.setBalance(wallet.getBalance() - amount);
-        wallet.setTotalInvested(wallet.getTotalInvested() + amount);
-        return walletRepository.save(wallet);
+        debit(username, amount, amount);
+        return getWalletByUsername(username);
     }
 
     @Transactional
     public Wallet addBalance(String username, Double amount) {
-        Wallet wallet = getWalletByUsername(username);
-        wallet.setBalance(wallet.getBalance() + amount);
-        wallet.setTotalWithdrawn(wallet.getTotalWithdrawn() + amount);
-        return walletRepository.save(wallet);
+        credit(username, amount, amount);
+        return getWalletByUsername(username);
     }
 
     @Transactional
@@ -62,9 +57,7 @@ public class WalletService {
         if (amount == null || amount <= 0) {
             throw new IllegalArgumentException("Deposit amount must be greater than 0");
         }
-        Wallet wallet = getWalletByUsername(username);
-        wallet.setBalance(wallet.getBalance() + amount);
-        walletRepository.save(wallet);
+        credit(username, amount, 0);
     }
 
     @Transactional
@@ -72,11 +65,20 @@ public class WalletService {
         if (amount == null || amount <= 0) {
             throw new IllegalArgumentException("Withdrawal amount must be greater than 0");
         }
-        Wallet wallet = getWalletByUsername(username);
-        if (wallet.getBalance() < amount) {
+        debit(username, amount, 0);
+    }
+
+    // Single conditional UPDATE, so there is no read-modify-write to lose or retry
+    private void debit(String username, double amount, double invested) {
+        if (walletRepository.debit(username, amount, invested, LocalDateTime.now()) == 0) {
+            Wallet wallet = getWalletByUsername(username);
             throw new RuntimeException("Insufficient balance. Required: " + amount + ", Available: " + wallet.getBalance());
         }
-        wallet.setBalance(wallet.getBalance() - amount);
-        walletRepository.save(wallet);
+    }
+
+    private void credit(String username, double amount, double withdrawn) {
+        if (walletRepository.credit(username, amount, withdrawn, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Wallet not found for username: " + username);
+        }
     }
 }
@@ -0,0 +1,14 @@
+-- Per-user holdings, which came after the baseline schema. Runs on databases
+-- baselined at version 1 as well; a table already created by Hibernate is kept.
+CREATE TABLE IF NOT EXISTS holdings (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    username     VARCHAR(255) NOT NULL,
+    asset_id     BIGINT       NOT NULL,
+    quantity     DOUBLE       NOT NULL,
+    average_cost DOUBLE       NOT NULL,
+    created_at   DATETIME(6),
+    updated_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_holdings_username_asset UNIQUE (username, asset_id),
+    CONSTRAINT fk_holdings_asset FOREIGN KEY (asset_id) REFERENCES assets (id)
+);
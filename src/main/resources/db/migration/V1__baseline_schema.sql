@@ -0,0 +1,41 @@
+-- Schema as previously generated by Hibernate. Existing databases are
+-- baselined at version 1 and skip this script.
+
+CREATE TABLE IF NOT EXISTS assets (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    symbol        VARCHAR(255) NOT NULL,
+    name          VARCHAR(255),
+    type          VARCHAR(255),
+    quantity      DOUBLE,
+    cost_per_unit DOUBLE,
+    created_at    DATETIME(6)  NOT NULL,
+    updated_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    username         VARCHAR(255) NOT NULL,
+    asset_id         BIGINT       NOT NULL,
+    quantity         DOUBLE       NOT NULL,
+    type             VARCHAR(255) NOT NULL,
+    units            INT          NOT NULL,
+    price            DOUBLE       NOT NULL,
+    price_per_unit   DOUBLE       NOT NULL,
+    total_amount     DOUBLE       NOT NULL,
+    transaction_date DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_asset FOREIGN KEY (asset_id) REFERENCES assets (id)
+);
+
+CREATE TABLE IF NOT EXISTS wallet (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    username        VARCHAR(255) NOT NULL,
+    balance         DOUBLE       NOT NULL,
+    total_invested  DOUBLE,
+    total_withdrawn DOUBLE,
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_username UNIQUE (username)
+);
@@ -0,0 +1,11 @@
+-- AssetRepository.findBySymbol / findViewBySymbol
+CREATE UNIQUE INDEX uk_assets_symbol ON assets (symbol);
+
+-- Per-user history and keyset pages: WHERE username = ? ORDER BY transaction_date DESC, id DESC
+CREATE INDEX idx_transactions_username_date ON transactions (username, transaction_date, id);
+
+-- Unfiltered and date-range keyset pages
+CREATE INDEX idx_transactions_date ON transactions (transaction_date, id);
+
+-- TransactionRepository.findViewsByAssetId and the asset foreign key
+CREATE INDEX idx_transactions_asset ON transactions (asset_id);
@@ -0,0 +1,10 @@
+-- Transaction ids come from this table in blocks (pooled-lo), so Hibernate
+-- can batch inserts instead of waiting on AUTO_INCREMENT per row.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'transactions', COALESCE(MAX(id), 0) + 1 FROM transactions;
@@ -0,0 +1,4 @@
+-- Optimistic-lock versions for rows updated by concurrent trades
+ALTER TABLE wallet ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE assets ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE holdings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
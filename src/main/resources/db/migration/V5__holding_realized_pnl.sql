@@ -0,0 +1,2 @@
+-- Realized profit or loss per holding; sells recorded before this column start from zero
+ALTER TABLE holdings ADD COLUMN realized_pnl DOUBLE NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Sequence number of the journal entry a transaction was projected from (journal mode only).
+-- The highest value is where journal replay resumes after a restart; unique so a replay never doubles a trade.
+ALTER TABLE transactions ADD COLUMN journal_seq BIGINT NULL;
+CREATE UNIQUE INDEX uk_transactions_journal_seq ON transactions (journal_seq);
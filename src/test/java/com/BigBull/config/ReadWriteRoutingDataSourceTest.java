@@ -0,0 +1,108 @@
+package com.BigBull.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica, each
+ * holding a different balance for the same wallet, so every read shows which
+ * one it was routed to.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static HikariDataSource primary;
+    private static HikariDataSource replica;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate readWrite;
+    private static TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void setUp() {
+        primary = pool(PRIMARY_URL, 100);
+        replica = pool(REPLICA_URL, 200);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReadPool() {
+        assertEquals(200, balanceIn(readOnly));
+    }
+
+    @Test
+    void readWriteTransactionsAndPlainCallsUseThePrimary() {
+        assertEquals(100, balanceIn(readWrite));
+        assertEquals(100, balance());
+    }
+
+    @Test
+    void readsAfterAWriteInTheSameRequestUseThePrimary() {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open()) {
+            assertEquals(200, balanceIn(readOnly));
+            readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE wallet SET version = version + 1"));
+            assertEquals(100, balanceIn(readOnly));
+        }
+        assertEquals(200, balanceIn(readOnly));
+    }
+
+    @Test
+    void aWriteHandedToAnotherThreadCountsForTheRequest() throws Exception {
+        ExecutorService lane = Executors.newSingleThreadExecutor();
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open()) {
+            Runnable write = () -> readWrite.executeWithoutResult(
+                    status -> jdbcTemplate.update("UPDATE wallet SET version = version + 1"));
+            CompletableFuture.runAsync(ContextSnapshotFactory.builder().build().captureAll().wrap(write), lane).get();
+            assertEquals(100, balanceIn(readOnly));
+        } finally {
+            lane.shutdown();
+        }
+    }
+
+    private static int balanceIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> balance());
+    }
+
+    private static int balance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM wallet WHERE username = 'alice'", Integer.class);
+    }
+
+    private static HikariDataSource pool(String url, int balance) {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        new JdbcTemplate(dataSource).update("INSERT INTO wallet (username, balance, total_invested, total_withdrawn, version)"
+                + " VALUES ('alice', ?, 0, 0, 0)", balance);
+        return dataSource;
+    }
+}
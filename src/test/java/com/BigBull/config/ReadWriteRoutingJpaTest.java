@@ -0,0 +1,112 @@
+package com.BigBull.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The routing under the application's JPA stack, a Hibernate
+ * EntityManagerFactory and JpaTransactionManager, which takes its connection
+ * and applies the read-only flag differently from plain JDBC transactions.
+ * The primary and the replica hold different balances for the same wallet.
+ */
+class ReadWriteRoutingJpaTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-jpa-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-jpa-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static HikariDataSource primary;
+    private static HikariDataSource replica;
+    private static EntityManagerFactory entityManagerFactory;
+    private static EntityManager entityManager;
+    private static TransactionTemplate readWrite;
+    private static TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void setUp() {
+        primary = pool(PRIMARY_URL, 100);
+        replica = pool(REPLICA_URL, 200);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.BigBull.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.cache.use_second_level_cache", "false"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        entityManagerFactory.close();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReadPool() {
+        assertEquals(200, balanceIn(readOnly));
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertEquals(100, balanceIn(readWrite));
+    }
+
+    @Test
+    void readsAfterAWriteInTheSameRequestUseThePrimary() {
+        try (ReadYourWrites.Scope scope = ReadYourWrites.open()) {
+            assertEquals(200, balanceIn(readOnly));
+            readWrite.executeWithoutResult(status ->
+                    entityManager.createNativeQuery("UPDATE wallet SET version = version + 1").executeUpdate());
+            assertEquals(100, balanceIn(readOnly));
+        }
+        assertEquals(200, balanceIn(readOnly));
+    }
+
+    private static int balanceIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> entityManager
+                .createQuery("SELECT w.balance FROM Wallet w WHERE w.username = 'alice'", Double.class)
+                .getSingleResult()
+                .intValue());
+    }
+
+    private static HikariDataSource pool(String url, int balance) {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        new JdbcTemplate(dataSource).update("INSERT INTO wallet (username, balance, total_invested, total_withdrawn, version)"
+                + " VALUES ('alice', ?, 0, 0, 0)", balance);
+        return dataSource;
+    }
+}
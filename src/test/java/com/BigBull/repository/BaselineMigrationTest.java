@@ -0,0 +1,48 @@
+package com.BigBull.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A database whose schema Hibernate generated before the migrations existed
+ * is baselined at version 1, as the application is configured to do, and
+ * must still come up to date.
+ */
+class BaselineMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void baselinedDatabaseGetsEveryLaterMigration() throws SQLException {
+        // The pre-migration schema, without Flyway's history table
+        Flyway.configure().dataSource(URL, "sa", "").target(MigrationVersion.fromVersion("1")).load().migrate();
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE \"flyway_schema_history\"");
+        }
+
+        Flyway.configure().dataSource(URL, "sa", "").baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT column_name FROM information_schema.columns"
+                     + " WHERE table_name = 'holdings' AND column_name IN ('version', 'realized_pnl')")) {
+            int columns = 0;
+            while (rs.next()) {
+                columns++;
+            }
+            assertEquals(2, columns);
+            assertTrue(st.getConnection().getMetaData().getTables(null, null, "id_sequences", null).next());
+        }
+    }
+}
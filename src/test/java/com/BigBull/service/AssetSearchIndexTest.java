@@ -0,0 +1,240 @@
+package com.BigBull.service;
+
+import com.BigBull.dto.AssetDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the index against a brute-force scorer over randomized symbols and
+ * names drawn from a small alphabet, so grams, prefixes and tiers collide a
+ * lot, through bulk loads, single puts, removals, re-puts and compactions.
+ */
+class AssetSearchIndexTest {
+
+    private static final String SYMBOL_CHARS = "abcde1";
+    private static final String NAME_CHARS = "abcde";
+    private static final String SEPARATORS = " -.";
+    private static final int[] LIMITS = {1, 3, 10, 50};
+
+    private final Random random = new Random(20261018L);
+    private final Set<String> usedSymbols = new HashSet<>();
+    // The assets the index should hold: id to {symbol, name}
+    private final Map<Long, String[]> expected = new LinkedHashMap<>();
+    private final AssetSearchIndex index = new AssetSearchIndex();
+    private long nextId = 1;
+
+    @Test
+    void bulkLoadMatchesBruteForce() {
+        bulkLoad(2000);
+        assertEquals(2000, index.size());
+        assertMatchesBruteForce(300);
+    }
+
+    @Test
+    void unrankedPutsRemovalsAndReputsMatchBruteForce() {
+        bulkLoad(1500);
+
+        // Appended after the ranked documents, so only found through the unranked tail
+        for (int i = 0; i < 300; i++) {
+            putNew();
+        }
+        // Removed ones are tombstoned until the next compaction
+        List<Long> ids = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < 200; i++) {
+            long id = ids.get(random.nextInt(ids.size()));
+            index.remove(id);
+            expected.remove(id);
+        }
+        // New text for existing ids, and unchanged text, which must not duplicate them
+        ids = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < 200; i++) {
+            long id = ids.get(random.nextInt(ids.size()));
+            String[] asset = i % 2 == 0 ? new String[]{symbol(), name()} : expected.get(id);
+            index.put(id, asset[0], asset[1]);
+            expected.put(id, asset);
+        }
+        assertEquals(expected.size(), index.size());
+        assertMatchesBruteForce(300);
+
+        index.compact();
+        assertEquals(0, (int) ReflectionTestUtils.getField(index, "documents") - ranked());
+        assertMatchesBruteForce(300);
+
+        // Puts after a compaction land in a fresh unranked tail
+        for (int i = 0; i < 100; i++) {
+            putNew();
+        }
+        assertMatchesBruteForce(300);
+    }
+
+    @Test
+    void compactsItselfPastTheThresholdAndStillMatches() {
+        bulkLoad(500);
+        assertEquals(500, ranked());
+
+        // The threshold is 4096 unranked or removed documents at this size
+        for (int i = 0; i < 4096; i++) {
+            putNew();
+        }
+        assertEquals(500, ranked());
+        assertMatchesBruteForce(100);
+
+        putNew();
+        assertEquals(expected.size(), ranked());
+        assertMatchesBruteForce(100);
+
+        // Removals count toward the threshold too
+        List<Long> ids = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < 4096; i++) {
+            long id = ids.get(i);
+            index.remove(id);
+            expected.remove(id);
+        }
+        int before = ranked();
+        assertMatchesBruteForce(100);
+        putNew();
+        assertTrue(ranked() < before, "removed documents should have been compacted away");
+        assertEquals(expected.size(), ranked());
+        assertMatchesBruteForce(100);
+    }
+
+    @Test
+    void normalizesQueriesAndIgnoresEmptyOnes() {
+        index.put(1, "AAPL", "Apple Inc.");
+        index.put(2, "APLE", "Apple Hospitality REIT");
+        assertArrayEquals(new long[]{1}, index.search("  aapl ", 10));
+        assertArrayEquals(new long[]{2, 1}, index.search("APL", 10));
+        assertArrayEquals(new long[0], index.search("   ", 10));
+        assertArrayEquals(new long[0], index.search("apple", 0));
+    }
+
+    private void bulkLoad(int count) {
+        List<AssetDTO> assets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = nextId++;
+            String[] asset = {symbol(), name()};
+            expected.put(id, asset);
+            AssetDTO dto = new AssetDTO();
+            dto.setId(id);
+            dto.setSymbol(asset[0]);
+            dto.setName(asset[1]);
+            assets.add(dto);
+        }
+        index.putAll(assets);
+    }
+
+    private void putNew() {
+        long id = nextId++;
+        String[] asset = {symbol(), name()};
+        expected.put(id, asset);
+        index.put(id, asset[0], asset[1]);
+    }
+
+    private void assertMatchesBruteForce(int queries) {
+        List<String[]> assets = new ArrayList<>(expected.values());
+        for (int i = 0; i < queries; i++) {
+            String[] asset = assets.get(random.nextInt(assets.size()));
+            String source = random.nextBoolean() ? asset[0] : asset[1];
+            // 1-, 2-, 3- and longer queries, from inside real text or made up
+            int length = 1 + random.nextInt(Math.min(5, source.length()));
+            int from = random.nextInt(source.length() - length + 1);
+            String query = i % 5 == 4 ? randomText(NAME_CHARS + " ", length) : source.substring(from, from + length);
+            if (random.nextInt(4) == 0) {
+                query = " " + query.toUpperCase(Locale.ROOT) + " ";
+            }
+            if (query.isBlank()) {
+                continue;
+            }
+            for (int limit : LIMITS) {
+                assertArrayEquals(bruteForce(query, limit), index.search(query, limit),
+                        "query '" + query + "' limit " + limit);
+            }
+        }
+    }
+
+    private long[] bruteForce(String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        List<Map.Entry<Long, String[]>> matches = new ArrayList<>();
+        for (Map.Entry<Long, String[]> entry : expected.entrySet()) {
+            if (score(entry.getValue(), q) > 0) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(Comparator.<Map.Entry<Long, String[]>>comparingInt(entry -> -score(entry.getValue(), q))
+                .thenComparingInt(entry -> entry.getValue()[0].length())
+                .thenComparing(entry -> entry.getValue()[0].toLowerCase(Locale.ROOT)));
+        return matches.stream().limit(limit).mapToLong(Map.Entry::getKey).toArray();
+    }
+
+    // The documented tiers, scored directly on the text
+    private static int score(String[] asset, String q) {
+        String symbol = asset[0].toLowerCase(Locale.ROOT);
+        String name = asset[1].toLowerCase(Locale.ROOT);
+        if (symbol.equals(q)) {
+            return 6;
+        }
+        if (symbol.startsWith(q)) {
+            return 5;
+        }
+        if (name.startsWith(q)) {
+            return 4;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isLetterOrDigit(name.charAt(i - 1)) && name.startsWith(q, i)) {
+                return 3;
+            }
+        }
+        if (q.length() < 3) {
+            return 0;
+        }
+        if (symbol.contains(q)) {
+            return 2;
+        }
+        return name.contains(q) ? 1 : 0;
+    }
+
+    private int ranked() {
+        return (int) ReflectionTestUtils.getField(index, "ranked");
+    }
+
+    // Unique, so equal scores are always ordered by the symbol alone
+    private String symbol() {
+        String symbol;
+        do {
+            symbol = randomText(SYMBOL_CHARS, 1 + random.nextInt(6)).toUpperCase(Locale.ROOT);
+        } while (!usedSymbols.add(symbol));
+        return symbol;
+    }
+
+    private String name() {
+        StringBuilder name = new StringBuilder(randomText(NAME_CHARS, 1 + random.nextInt(5)));
+        int words = random.nextInt(3);
+        for (int i = 0; i < words; i++) {
+            name.append(SEPARATORS.charAt(random.nextInt(SEPARATORS.length())));
+            name.append(randomText(NAME_CHARS, 1 + random.nextInt(5)));
+        }
+        return random.nextBoolean() ? name.toString().toUpperCase(Locale.ROOT) : name.toString();
+    }
+
+    private String randomText(String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
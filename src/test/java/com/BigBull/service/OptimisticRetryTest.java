@@ -0,0 +1,118 @@
+package com.BigBull.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Which failures are retried: lost optimistic updates and unique key races,
+ * but not integrity violations that would fail the same way every time.
+ */
+class OptimisticRetryTest {
+
+    private OptimisticRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        retry = new OptimisticRetry();
+        ReflectionTestUtils.setField(retry, "transactionManager", new NoOpTransactionManager());
+        ReflectionTestUtils.setField(retry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retry, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMs", 2L);
+        retry.init();
+    }
+
+    @Test
+    void retriesLostOptimisticUpdates() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = retry.inTransaction(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            return "done";
+        });
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void retriesUniqueKeyRacesFromJdbcAndJpa() {
+        DataIntegrityViolationException fromJpa = violation(ConstraintViolationException.ConstraintKind.UNIQUE);
+        AtomicInteger attempts = new AtomicInteger();
+        RuntimeException gaveUp = assertThrows(RuntimeException.class, () -> retry.inTransaction(() -> {
+            attempts.incrementAndGet();
+            throw fromJpa;
+        }));
+        assertEquals(3, attempts.get());
+        assertSame(fromJpa, gaveUp.getCause());
+
+        attempts.set(0);
+        assertThrows(RuntimeException.class, () -> retry.inTransaction(() -> {
+            attempts.incrementAndGet();
+            throw new DuplicateKeyException("uk_holdings_username_asset");
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void rethrowsOtherIntegrityViolationsAtOnce() {
+        for (ConstraintViolationException.ConstraintKind kind : new ConstraintViolationException.ConstraintKind[]{
+                ConstraintViolationException.ConstraintKind.NOT_NULL,
+                ConstraintViolationException.ConstraintKind.FOREIGN_KEY}) {
+            DataIntegrityViolationException violation = violation(kind);
+            AtomicInteger attempts = new AtomicInteger();
+            DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                    () -> retry.inTransaction(() -> {
+                        attempts.incrementAndGet();
+                        throw violation;
+                    }));
+            assertSame(violation, thrown);
+            assertEquals(1, attempts.get());
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(DataIntegrityViolationException.class, () -> retry.inTransaction(() -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("Value too long for column");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    private static DataIntegrityViolationException violation(ConstraintViolationException.ConstraintKind kind) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("violation", new SQLException("violation"), kind, "constraint"));
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.BigBull.service;
+
+import com.BigBull.BigBullServerApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Journal mode against an embedded H2 database: an acknowledged trade that
+ * cannot be projected stays in the journal, through restarts, until it can.
+ */
+class TradeJournalServiceTest {
+
+    private static final String URL = "jdbc:h2:mem:journal-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String DELETE_URL = "jdbc:h2:mem:journal-delete;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void anEntryThatCannotBeProjectedSurvivesARestart() throws Exception {
+        ConfigurableApplicationContext context = start(URL);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        jdbcTemplate.update("INSERT INTO assets (symbol, name, type, quantity, cost_per_unit, created_at, updated_at, version)"
+                + " VALUES ('JRNL', 'Journal', 'STOCK', 0, 0, NOW(), NOW(), 0)");
+        jdbcTemplate.update("INSERT INTO wallet (username, balance, total_invested, total_withdrawn, version)"
+                + " VALUES ('alice', 1000, 0, 0, 0), ('bob', 1000, 0, 0, 0)");
+        context.getBean(PriceBook.class).update("JRNL", 10.0);
+        TradeJournalService service = context.getBean(TradeJournalService.class);
+
+        service.executeTransaction("alice", "JRNL", "BUY", 1);
+        awaitProjectedRows(jdbcTemplate, 1);
+
+        // The wallet disappears under the cached account, so the next acknowledged trade cannot be applied
+        jdbcTemplate.update("DELETE FROM wallet WHERE username = 'alice'");
+        long transactionId = service.executeTransaction("alice", "JRNL", "BUY", 2).getTransactionId();
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (service.health().getStatus() != Status.DOWN && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(Status.DOWN, service.health().getStatus());
+        RuntimeException refused = assertThrows(RuntimeException.class,
+                () -> service.executeTransaction("bob", "JRNL", "BUY", 1));
+        assertTrue(refused.getMessage().contains("unavailable"), refused.getMessage());
+        context.close();
+
+        // Still unprojectable: the replay refuses to start rather than skip it
+        assertThrows(RuntimeException.class, () -> start(URL));
+
+        jdbcTemplate.update("INSERT INTO wallet (username, balance, total_invested, total_withdrawn, version)"
+                + " VALUES ('alice', 1000, 0, 0, 0)");
+        context = start(URL);
+        assertEquals(transactionId, jdbcTemplate.queryForObject("SELECT id FROM transactions WHERE journal_seq = 2", Long.class));
+        assertEquals(980.0, jdbcTemplate.queryForObject("SELECT balance FROM wallet WHERE username = 'alice'", Double.class));
+        assertEquals(Status.UP, context.getBean(TradeJournalService.class).health().getStatus());
+        context.close();
+    }
+
+    @Test
+    void deletingAnAssetNeverStrandsAJournaledOrder() throws Exception {
+        ConfigurableApplicationContext context = start(DELETE_URL);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(DELETE_URL, "sa", ""));
+        jdbcTemplate.update("INSERT INTO assets (symbol, name, type, quantity, cost_per_unit, created_at, updated_at, version)"
+                + " VALUES ('KEEP', 'Kept', 'STOCK', 0, 0, NOW(), NOW(), 0), ('GONE', 'Gone', 'STOCK', 0, 0, NOW(), NOW(), 0)");
+        jdbcTemplate.update("INSERT INTO wallet (username, balance, total_invested, total_withdrawn, version)"
+                + " VALUES ('carol', 1000, 0, 0, 0)");
+        context.getBean(PriceBook.class).update("KEEP", 10.0);
+        context.getBean(PriceBook.class).update("GONE", 10.0);
+        TradeJournalService service = context.getBean(TradeJournalService.class);
+        AssetService assetService = context.getBean(AssetService.class);
+        long kept = jdbcTemplate.queryForObject("SELECT id FROM assets WHERE symbol = 'KEEP'", Long.class);
+        long gone = jdbcTemplate.queryForObject("SELECT id FROM assets WHERE symbol = 'GONE'", Long.class);
+
+        // The journaled order is projected before the delete runs, whose foreign key then refuses it
+        service.executeTransaction("carol", "KEEP", "BUY", 1);
+        assertThrows(RuntimeException.class, () -> assetService.deleteAsset(kept));
+        service.executeTransaction("carol", "KEEP", "BUY", 1);
+
+        // A refused sell caches the asset; once deleted, orders for it are refused instead of journaled
+        assertThrows(RuntimeException.class, () -> service.executeTransaction("carol", "GONE", "SELL", 1));
+        assetService.deleteAsset(gone);
+        RuntimeException refused = assertThrows(RuntimeException.class,
+                () -> service.executeTransaction("carol", "GONE", "BUY", 1));
+        assertTrue(refused.getMessage().contains("Asset not found"), refused.getMessage());
+
+        awaitProjectedRows(jdbcTemplate, 2);
+        assertEquals(Status.UP, service.health().getStatus());
+        context.close();
+    }
+
+    private ConfigurableApplicationContext start(String url) {
+        return new SpringApplicationBuilder(BigBullServerApplication.class).web(WebApplicationType.NONE).run(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--bigbull.stream.enabled=false",
+                "--bigbull.journal.enabled=true",
+                "--bigbull.journal.dir=" + journalDir,
+                "--bigbull.journal.segment-size-mb=1",
+                "--bigbull.journal.max-projection-attempts=2",
+                "--bigbull.trades.retry.max-attempts=1");
+    }
+
+    private static void awaitProjectedRows(JdbcTemplate jdbcTemplate, int rows) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class) < rows
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(rows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+    }
+}
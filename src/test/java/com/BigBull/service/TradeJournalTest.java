@@ -0,0 +1,161 @@
+package com.BigBull.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery, segment rolling and sequence numbering of the trade journal,
+ * against real segment files in a temporary directory.
+ */
+class TradeJournalTest {
+
+    // 8-byte payloads behind a 16-byte header
+    private static final int RECORD_BYTES = 24;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tornTailIsDroppedAndSequenceContinues() throws IOException {
+        TradeJournal journal = new TradeJournal(dir, 1024);
+        journal.open(0);
+        for (int i = 1; i <= 5; i++) {
+            journal.append(payload(i));
+        }
+        journal.close();
+
+        // A flipped checksum byte in the last header stands in for a write torn by a crash
+        corrupt(segments().get(0), 4 * RECORD_BYTES + 4);
+
+        journal = new TradeJournal(dir, 1024);
+        List<TradeJournal.Entry> entries = journal.open(0);
+        assertEquals(4, entries.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 1, entries.get(i).seq());
+            assertArrayEquals(payload(i + 1), entries.get(i).payload());
+        }
+        assertEquals(5, journal.append(payload(50)));
+        journal.close();
+
+        journal = new TradeJournal(dir, 1024);
+        entries = journal.open(0);
+        assertEquals(5, entries.size());
+        assertArrayEquals(payload(50), entries.get(4).payload());
+        journal.close();
+    }
+
+    @Test
+    void rollsPastSegmentSizeAndReleaseKeepsCurrentSegment() throws IOException {
+        // Two records per segment
+        TradeJournal journal = new TradeJournal(dir, 2 * RECORD_BYTES + 8);
+        journal.open(0);
+        for (int i = 1; i <= 5; i++) {
+            journal.append(payload(i));
+        }
+        assertEquals(3, segments().size());
+
+        journal.release(3);
+        assertEquals(2, segments().size());
+        journal.release(5);
+        assertEquals(1, segments().size());
+        journal.close();
+
+        journal = new TradeJournal(dir, 2 * RECORD_BYTES + 8);
+        List<TradeJournal.Entry> entries = journal.open(5);
+        assertEquals(1, entries.size());
+        assertEquals(5, entries.get(0).seq());
+        assertEquals(6, journal.append(payload(6)));
+        journal.close();
+    }
+
+    @Test
+    void reopenReplaysEverythingPastTheProjectedSequence() throws IOException {
+        TradeJournal journal = new TradeJournal(dir, 2 * RECORD_BYTES + 8);
+        journal.open(0);
+        for (int i = 1; i <= 6; i++) {
+            journal.append(payload(i));
+        }
+        // Projected up to 3: the segment holding 1 and 2 goes, the one holding 3 and 4 stays
+        journal.release(3);
+        journal.close();
+
+        journal = new TradeJournal(dir, 2 * RECORD_BYTES + 8);
+        List<Long> unprojected = journal.open(3).stream()
+                .map(TradeJournal.Entry::seq)
+                .filter(seq -> seq > 3)
+                .toList();
+        assertEquals(List.of(4L, 5L, 6L), unprojected);
+        journal.close();
+    }
+
+    @Test
+    void sequenceNeverFallsBackToTheFloor() throws IOException {
+        TradeJournal journal = new TradeJournal(dir, 1024);
+        assertTrue(journal.open(42).isEmpty());
+        assertEquals(43, journal.append(payload(1)));
+        journal.close();
+
+        // Segments released after projection still leave the floor ahead of anything on disk
+        journal = new TradeJournal(dir, 1024);
+        assertEquals(1, journal.open(100).size());
+        assertEquals(101, journal.append(payload(2)));
+        journal.close();
+
+        // A floor below the journal does not move it back
+        journal = new TradeJournal(dir, 1024);
+        assertEquals(2, journal.open(7).size());
+        assertEquals(102, journal.append(payload(3)));
+        journal.close();
+    }
+
+    @Test
+    void corruptRecordBeforeTheLastSegmentFailsOpen() throws IOException {
+        TradeJournal journal = new TradeJournal(dir, 2 * RECORD_BYTES + 8);
+        journal.open(0);
+        for (int i = 1; i <= 3; i++) {
+            journal.append(payload(i));
+        }
+        journal.close();
+
+        corrupt(segments().get(0), RECORD_BYTES + 4);
+
+        TradeJournal reopened = new TradeJournal(dir, 2 * RECORD_BYTES + 8);
+        assertThrows(IllegalStateException.class, () -> reopened.open(0));
+        reopened.close();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> listing = Files.list(dir)) {
+            return listing.filter(path -> path.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static byte[] payload(int value) {
+        return String.format("%08d", value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void corrupt(Path file, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) ~b.get(0));
+            b.rewind();
+            channel.write(b, offset);
+        }
+    }
+}
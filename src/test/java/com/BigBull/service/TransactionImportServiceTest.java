@@ -0,0 +1,120 @@
+package com.BigBull.service;
+
+import com.BigBull.BigBullServerApplication;
+import com.BigBull.dto.TransactionImportResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CSV parsing, row rejection and the holdings and wallet rebuild after an
+ * import, against an embedded H2 database.
+ */
+class TransactionImportServiceTest {
+
+    private static final String URL = "jdbc:h2:mem:import-service;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionImportService importService;
+
+    @BeforeAll
+    static void start() {
+        context = new SpringApplicationBuilder(BigBullServerApplication.class).web(WebApplicationType.NONE).run(
+                "--spring.datasource.url=" + URL,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--bigbull.stream.enabled=false",
+                "--bigbull.import.batch-size=2");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        importService = context.getBean(TransactionImportService.class);
+        jdbcTemplate.update("INSERT INTO assets (symbol, name, type, quantity, cost_per_unit, created_at, updated_at, version)"
+                + " VALUES ('IMPA', 'Import A', 'STOCK', 0, 0, NOW(), NOW(), 0), ('IMPB', 'Import B', 'STOCK', 0, 0, NOW(), NOW(), 0)");
+        jdbcTemplate.update("INSERT INTO wallet (username, balance, total_invested, total_withdrawn, version)"
+                + " VALUES ('dave', 500, 100, 0, 0)");
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void splitHandlesQuotedCommasAndEscapedQuotes() {
+        assertEquals(List.of("a", "b", "c"), TransactionImportService.split("a, b ,c"));
+        assertEquals(List.of("a", "b,c", "d"), TransactionImportService.split("a,\"b,c\",d"));
+        assertEquals(List.of("say \"hi\"", "x"), TransactionImportService.split("\"say \"\"hi\"\"\",x"));
+        assertEquals(List.of("\"", ""), TransactionImportService.split("\"\"\"\","));
+        assertEquals(List.of("", "", ""), TransactionImportService.split(",,"));
+    }
+
+    @Test
+    void importRejectsBadRowsByLineAndRebuildsHoldingsAndWallets() throws Exception {
+        // Out of date order on purpose: replayed in file order, the sell would find nothing to sell
+        String csv = String.join("\n",
+                "symbol,USERNAME,type,units,price,date,note",
+                "IMPA,dave,SELL,5,20,2024-03-01,\"late, sold\"",
+                "IMPA,dave,BUY,10,10,2024-01-01T09:30:00,first",
+                "",
+                "IMPA,dave,HOLD,1,10,2024-01-02,",
+                "NOPE,dave,BUY,1,10,2024-01-02,",
+                "IMPA,dave,BUY,-1,10,2024-01-02,",
+                "IMPA,dave,BUY,1,10,2999-01-01,",
+                "IMPA,dave",
+                "IMPA,dave,buy,10,16,2024-02-01 12:00:00,",
+                "IMPB,erin,BUY,4,25,2024-01-05,");
+
+        TransactionImportResult result = importService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(9, result.getRowsRead());
+        assertEquals(4, result.getRowsImported());
+        assertEquals(5, result.getRowsRejected());
+        assertEquals(2, result.getUsersRebuilt());
+        assertEquals(List.of(
+                "line 5: Invalid transaction type: HOLD",
+                "line 6: Asset not found: NOPE",
+                "line 7: Units must be positive: -1",
+                "line 8: Date is in the future: 2999-01-01T00:00",
+                "line 9: Expected at least 6 fields, found 2"), result.getErrors());
+
+        // Bought 10 at 10 and 10 at 16, then sold 5 at 20 against the average cost of 13
+        Map<String, Object> holding = jdbcTemplate.queryForMap("SELECT h.quantity, h.average_cost, h.realized_pnl"
+                + " FROM holdings h JOIN assets a ON a.id = h.asset_id WHERE h.username = 'dave' AND a.symbol = 'IMPA'");
+        assertEquals(15.0, ((Number) holding.get("quantity")).doubleValue(), 1e-9);
+        assertEquals(13.0, ((Number) holding.get("average_cost")).doubleValue(), 1e-9);
+        assertEquals(35.0, ((Number) holding.get("realized_pnl")).doubleValue(), 1e-9);
+
+        // Totals take the imported trades; the cash balance does not, as they were paid for elsewhere
+        Map<String, Object> dave = jdbcTemplate.queryForMap(
+                "SELECT balance, total_invested, total_withdrawn FROM wallet WHERE username = 'dave'");
+        assertEquals(500.0, ((Number) dave.get("balance")).doubleValue(), 1e-9);
+        assertEquals(360.0, ((Number) dave.get("total_invested")).doubleValue(), 1e-9);
+        assertEquals(100.0, ((Number) dave.get("total_withdrawn")).doubleValue(), 1e-9);
+
+        Map<String, Object> erin = jdbcTemplate.queryForMap(
+                "SELECT balance, total_invested FROM wallet WHERE username = 'erin'");
+        assertEquals(0.0, ((Number) erin.get("balance")).doubleValue(), 1e-9);
+        assertEquals(100.0, ((Number) erin.get("total_invested")).doubleValue(), 1e-9);
+        assertEquals(4.0, jdbcTemplate.queryForObject("SELECT h.quantity FROM holdings h JOIN assets a ON a.id = h.asset_id"
+                + " WHERE h.username = 'erin' AND a.symbol = 'IMPB'", Double.class), 1e-9);
+
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        assertEquals(4.0, registry.get("bigbull.import.rows").tag("outcome", "imported").functionCounter().count());
+        assertEquals(5.0, registry.get("bigbull.import.rows").tag("outcome", "rejected").functionCounter().count());
+    }
+}